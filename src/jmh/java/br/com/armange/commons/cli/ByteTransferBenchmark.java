@@ -0,0 +1,74 @@
+package br.com.armange.commons.cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ByteTransferBenchmark {
+
+    @Param({"268435456", "4294967296"})
+    public long outputBytes;
+
+    private String[] command;
+    private DefaultCommandRunner commandRunner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        command = new String[]{"sh", "-c", "yes 0123456789abcdef | head -c " + outputBytes};
+        commandRunner = DefaultCommandRunner.builder()
+                .capturePolicy(CapturePolicy.tailLines(1))
+                .timeoutValue(10)
+                .timeoutUnit(TimeUnit.MINUTES)
+                .build();
+    }
+
+    @Benchmark
+    public CommandResult lineMode() {
+        return commandRunner.run(command);
+    }
+
+    @Benchmark
+    public CommandResult byteMode() {
+        return commandRunner.runBytes(null, null, new DiscardingChannel(), command);
+    }
+
+    private static final class DiscardingChannel implements WritableByteChannel {
+
+        @Override
+        public int write(final ByteBuffer source) {
+            final int remaining = source.remaining();
+
+            source.position(source.limit());
+
+            return remaining;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package br.com.armange.commons.cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class EnvironmentBenchmark {
+
+    @Param({"0", "1000"})
+    public int extraVariables;
+
+    private Map<String, String> variables;
+    private CommandEnvironment environment;
+    private DefaultCommandRunner inheritingRunner;
+    private DefaultCommandRunner configuredRunner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        variables = IntStream.range(0, extraVariables)
+                .boxed()
+                .collect(Collectors.toMap(i -> "COMMONS_CLI_" + i, i -> "value " + i));
+        environment = CommandEnvironment.inherit()
+                .with(variables)
+                .with("COMMONS_CLI_BENCHMARK", "true")
+                .without("HOME");
+        inheritingRunner = new DefaultCommandRunner();
+        configuredRunner = DefaultCommandRunner.builder().environment(environment).build();
+    }
+
+    @Benchmark
+    public Map<String, String> prepareWithEnvironmentDelta() {
+        final ProcessBuilder processBuilder = new ProcessBuilder("true");
+
+        environment.applyTo(processBuilder);
+
+        return processBuilder.environment();
+    }
+
+    @Benchmark
+    public Map<String, String> prepareWithPerLaunchCopy() {
+        final ProcessBuilder processBuilder = new ProcessBuilder("true");
+        final Map<String, String> resolved = new HashMap<>(System.getenv());
+
+        resolved.putAll(variables);
+        resolved.put("COMMONS_CLI_BENCHMARK", "true");
+        resolved.remove("HOME");
+        processBuilder.environment().clear();
+        processBuilder.environment().putAll(resolved);
+
+        return processBuilder.environment();
+    }
+
+    @Benchmark
+    public CommandResult launchInheriting() {
+        return inheritingRunner.run("true");
+    }
+
+    @Benchmark
+    public CommandResult launchConfigured() {
+        return configuredRunner.run("true");
+    }
+}
@@ -0,0 +1,104 @@
+package br.com.armange.commons.cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class OutputDrainBenchmark {
+
+    public static final int LINE_LENGTH = 100;
+    public static final Timeouts TIMEOUTS = new Timeouts(TimeUnit.MINUTES.toNanos(1), 0,
+            TimeUnit.SECONDS.toNanos(5));
+
+    @Param({"1048576", "104857600"})
+    public int outputBytes;
+
+    private byte[] output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        output = new byte[outputBytes];
+
+        Arrays.fill(output, (byte) 'x');
+
+        for (int i = LINE_LENGTH; i < outputBytes; i += LINE_LENGTH + 1) {
+            output[i] = '\n';
+        }
+    }
+
+    @Benchmark
+    public CommandResult drainOutput() throws InterruptedException {
+        return new CommandExecution(new InMemoryProcess(output), CapturePolicy.unbounded(),
+                CommandExecutors.sharedExecutor())
+                .await(TIMEOUTS);
+    }
+
+    private static final class InMemoryProcess extends Process {
+
+        private final InputStream inputStream;
+
+        private InMemoryProcess(final byte[] output) {
+            this.inputStream = new ByteArrayInputStream(output);
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public int waitFor() {
+            return 0;
+        }
+
+        @Override
+        public boolean waitFor(final long timeout, final TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public int exitValue() {
+            return 0;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return false;
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.armange.commons.cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ParallelRunBenchmark {
+
+    public static final int COMMANDS = 64;
+
+    @Param({"1", "4", "16", "64"})
+    public int threads;
+
+    private ExecutorService callers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        callers = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMANDS)
+    public int runCmdConcurrently() throws InterruptedException, ExecutionException {
+        final List<Future<CommandResult>> futures = new ArrayList<>(COMMANDS);
+        int resultCodes = 0;
+
+        for (int i = 0; i < COMMANDS; i++) {
+            futures.add(callers.submit(() -> DefaultCommandRunner.runCmd("true")));
+        }
+
+        for (final Future<CommandResult> future : futures) {
+            resultCodes += future.get().getResultCode();
+        }
+
+        return resultCodes;
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.armange.commons.cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class RecordParseBenchmark {
+
+    private static final Pattern COLUMNS = Pattern.compile(" +");
+    private static final RecordParser PARSER = RecordParser.whitespace(4);
+
+    @Param({"1000000"})
+    public int lines;
+
+    private String[] command;
+    private DefaultCommandRunner commandRunner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        command = new String[]{"awk", "BEGIN { for (i = 0; i < " + lines + "; i++) "
+                + "printf \"%8d user%d %10d /usr/bin/command --flag %d\\n\", i, i % 10, i * 3, i }"};
+        commandRunner = DefaultCommandRunner.builder()
+                .timeoutUnit(TimeUnit.MINUTES)
+                .build();
+    }
+
+    @Benchmark
+    public long splitAfterCollect() {
+        long sum = 0;
+
+        for (final String line : commandRunner.run(command).getResultLines()) {
+            final String[] columns = COLUMNS.split(line.trim(), 4);
+
+            sum += Long.parseLong(columns[0]) + Long.parseLong(columns[2]);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public long parseWhileDraining() {
+        final long[] sum = new long[1];
+
+        commandRunner.runRecords(PARSER, record -> sum[0] += record.getLong(0)
+                + record.getLong(2), command);
+
+        return sum[0];
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.armange.commons.cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ResultMessageBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int lines;
+
+    private List<String> resultLines;
+    private CommandResult commandResult;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        resultLines = IntStream.range(0, lines)
+                .mapToObj(i -> "result line " + i)
+                .collect(Collectors.toList());
+        commandResult = DefaultCommandResult.newDefaultCommandResult(0, resultLines);
+    }
+
+    @Benchmark
+    public String getCachedResultMessage() {
+        return commandResult.getResultMessage();
+    }
+
+    @Benchmark
+    public String buildAndGetResultMessage() {
+        return DefaultCommandResult.newDefaultCommandResult(0, resultLines).getResultMessage();
+    }
+
+    @Benchmark
+    public String joinResultLines() {
+        return String.join("\n", resultLines).concat("\n");
+    }
+}
@@ -0,0 +1,55 @@
+package br.com.armange.commons.cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class StdinFeedBenchmark {
+
+    @Param({"100000"})
+    public int lines;
+
+    @Param({"BUFFERED", "EACH_LINE"})
+    public FlushPolicy flushPolicy;
+
+    private List<String> input;
+    private DefaultCommandRunner commandRunner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = IntStream.range(0, lines)
+                .mapToObj(i -> "line " + i)
+                .collect(Collectors.toList());
+        commandRunner = DefaultCommandRunner.builder()
+                .targetOutputStream(new File("/dev/null"))
+                .flushPolicy(flushPolicy)
+                .timeoutUnit(TimeUnit.MINUTES)
+                .build();
+    }
+
+    @Benchmark
+    public CommandResult feedStdin() {
+        return commandRunner.run(null, input, "cat");
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+
+@Getter
+public final class BatchSummary {
+
+    private final List<BatchEntry> entries;
+    private final Duration wallTime;
+    private final Duration totalRunTime;
+    private final Duration maxRunTime;
+    private final int succeededCount;
+    private final int failedCount;
+    private final int skippedCount;
+
+    BatchSummary(final List<BatchEntry> entries, final Duration wallTime) {
+        this.entries = List.copyOf(entries);
+        this.wallTime = wallTime;
+        this.totalRunTime = entries.stream()
+                .map(BatchEntry::getRunTime)
+                .reduce(Duration.ZERO, Duration::plus);
+        this.maxRunTime = entries.stream()
+                .map(BatchEntry::getRunTime)
+                .max(Duration::compareTo)
+                .orElse(Duration.ZERO);
+        this.succeededCount = (int) entries.stream().filter(BatchEntry::isSuccessful).count();
+        this.skippedCount = (int) entries.stream().filter(BatchEntry::isSkipped).count();
+        this.failedCount = entries.size() - succeededCount - skippedCount;
+    }
+
+    public boolean isSuccessful() {
+        return succeededCount == entries.size();
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.LongConsumer;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class ByteTransfer {
+
+    static final int TRANSFER_CHUNK_SIZE = 1 << 20;
+
+    @FunctionalInterface
+    interface Sink {
+
+        long transferFrom(InputStream inputStream) throws IOException;
+    }
+
+    static long transfer(final InputStream inputStream,
+                         final OutputStream target) throws IOException {
+        final long byteCount = inputStream.transferTo(target);
+
+        target.flush();
+
+        return byteCount;
+    }
+
+    static long transfer(final InputStream inputStream,
+                         final WritableByteChannel target) throws IOException {
+        if (target instanceof FileChannel) {
+            return transferToFile(Channels.newChannel(inputStream), (FileChannel) target);
+        }
+
+        return inputStream.transferTo(Channels.newOutputStream(target));
+    }
+
+    static InputStream reporting(final InputStream inputStream, final LongConsumer bytesRead) {
+        return new FilterInputStream(inputStream) {
+
+            @Override
+            public int read() throws IOException {
+                final int read = super.read();
+
+                if (read != -1) {
+                    bytesRead.accept(1);
+                }
+
+                return read;
+            }
+
+            @Override
+            public int read(final byte[] bytes, final int offset, final int length)
+                    throws IOException {
+                final int read = super.read(bytes, offset, length);
+
+                if (read > 0) {
+                    bytesRead.accept(read);
+                }
+
+                return read;
+            }
+        };
+    }
+
+    private static long transferToFile(final ReadableByteChannel source,
+                                       final FileChannel target) throws IOException {
+        final long start = target.position();
+        long position = start;
+
+        for (long transferred = target.transferFrom(source, position, TRANSFER_CHUNK_SIZE);
+             transferred > 0;
+             transferred = target.transferFrom(source, position, TRANSFER_CHUNK_SIZE)) {
+            position += transferred;
+        }
+
+        target.position(position);
+
+        return position - start;
+    }
+}
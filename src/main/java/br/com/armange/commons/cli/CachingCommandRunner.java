@@ -0,0 +1,242 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+public class CachingCommandRunner implements CommandRunner {
+
+    private final CommandRunner commandRunner;
+    private final int maxEntries;
+    private final long timeToLiveNanos;
+    private final List<String> watchedFiles;
+    private final boolean cacheFailures;
+    private final LinkedHashMap<CacheKey, CacheEntry> entries;
+    private final Map<CacheKey, CompletableFuture<CommandResult>> inFlight =
+            new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    @Builder
+    private CachingCommandRunner(@NonNull final CommandRunner commandRunner,
+                                 final Integer maxEntries,
+                                 final Duration timeToLive,
+                                 final List<String> watchedFiles,
+                                 final boolean cacheFailures) {
+        this.commandRunner = commandRunner;
+        this.maxEntries = Optional.ofNullable(maxEntries).orElse(1024);
+        this.timeToLiveNanos = Optional.ofNullable(timeToLive)
+                .map(Duration::toNanos)
+                .orElse(Long.MAX_VALUE);
+        this.watchedFiles = Optional.ofNullable(watchedFiles)
+                .map(List::copyOf)
+                .orElseGet(Collections::emptyList);
+        this.cacheFailures = cacheFailures;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    @Override
+    public CommandResult run(final String... command) {
+        return run(null, null, command);
+    }
+
+    @Override
+    public CommandResult run(final List<String> outputLines, final String... command) {
+        return run(null, outputLines, command);
+    }
+
+    @Override
+    public CommandResult run(final File directory, final String... command) {
+        return run(directory, null, command);
+    }
+
+    @Override
+    public CommandResult run(final File directory,
+                             final List<String> outputLines,
+                             final String... command) {
+        final CacheKey key = new CacheKey(Arrays.asList(command.clone()), directory,
+                Optional.ofNullable(outputLines).map(List::copyOf).orElse(null));
+        final List<Long> fileStamps = fileStamps(directory);
+        final CommandResult cachedResult = lookup(key, fileStamps);
+
+        if (cachedResult != null) {
+            hitCount.increment();
+
+            return copyOf(cachedResult);
+        }
+
+        final CompletableFuture<CommandResult> ownFuture = new CompletableFuture<>();
+        final CompletableFuture<CommandResult> sharedFuture = inFlight.putIfAbsent(key, ownFuture);
+
+        if (sharedFuture != null) {
+            hitCount.increment();
+
+            return copyOf(join(sharedFuture));
+        }
+
+        missCount.increment();
+
+        try {
+            final CommandResult commandResult = commandRunner.run(directory, outputLines, command);
+
+            if (commandResult.getTermination() == Termination.EXITED
+                    && (cacheFailures || commandResult.getResultCode() == 0)) {
+                store(key, new CacheEntry(commandResult, fileStamps,
+                        System.nanoTime()));
+            }
+
+            ownFuture.complete(commandResult);
+
+            return copyOf(commandResult);
+        } catch (final RuntimeException e) {
+            ownFuture.completeExceptionally(e);
+
+            throw e;
+        } finally {
+            inFlight.remove(key, ownFuture);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private CommandResult lookup(final CacheKey key, final List<Long> fileStamps) {
+        synchronized (entries) {
+            final CacheEntry entry = entries.get(key);
+
+            if (entry == null) {
+                return null;
+            }
+
+            if (System.nanoTime() - entry.storedAt > timeToLiveNanos
+                    || !entry.fileStamps.equals(fileStamps)) {
+                entries.remove(key);
+                evictionCount.increment();
+
+                return null;
+            }
+
+            return entry.commandResult;
+        }
+    }
+
+    private void store(final CacheKey key, final CacheEntry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+
+            final Iterator<CacheEntry> iterator = entries.values().iterator();
+
+            while (entries.size() > maxEntries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private List<Long> fileStamps(final File directory) {
+        return watchedFiles.stream()
+                .map(fileName -> new File(directory, fileName).lastModified())
+                .collect(Collectors.toList());
+    }
+
+    private static CommandResult join(final CompletableFuture<CommandResult> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    private static CommandResult copyOf(final CommandResult commandResult) {
+        final DefaultCommandResult copy = DefaultCommandResult.newDefaultCommandResult(
+                commandResult.getResultCode(), commandResult.getOutputLines(),
+                commandResult.getErrorLines(), commandResult.getDroppedLines(),
+                commandResult.getDroppedBytes(),
+                commandResult.getTermination());
+        final String additionalMessage = commandResult.getAdditionalMessage();
+
+        if (additionalMessage != null && !additionalMessage.isEmpty()) {
+            copy.appendAdditionalMessage(additionalMessage);
+        }
+
+        return copy;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class CacheKey {
+
+        private final List<String> command;
+        private final File directory;
+        private final List<String> outputLines;
+    }
+
+    @RequiredArgsConstructor
+    private static final class CacheEntry {
+
+        private final CommandResult commandResult;
+        private final List<Long> fileStamps;
+        private final long storedAt;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CapturePolicy {
+
+    private static final CapturePolicy UNBOUNDED = new CapturePolicy(
+            Integer.MAX_VALUE, 0, Long.MAX_VALUE);
+
+    private final int headLines;
+    private final int tailLines;
+    private final long maxBytes;
+
+    public CapturePolicy withMaxBytes(final long maxBytes) {
+        requireNotNegative(maxBytes);
+
+        return new CapturePolicy(headLines, tailLines, maxBytes);
+    }
+
+    OutputCapture newOutputCapture() {
+        return newOutputCapture(false);
+    }
+
+    OutputCapture newOutputCapture(final boolean timed) {
+        return new OutputCapture(headLines, tailLines, maxBytes, timed);
+    }
+
+    public static CapturePolicy unbounded() {
+        return UNBOUNDED;
+    }
+
+    public static CapturePolicy headLines(final int headLines) {
+        return headAndTailLines(headLines, 0);
+    }
+
+    public static CapturePolicy tailLines(final int tailLines) {
+        return headAndTailLines(0, tailLines);
+    }
+
+    public static CapturePolicy headAndTailLines(final int headLines, final int tailLines) {
+        requireNotNegative(headLines);
+        requireNotNegative(tailLines);
+
+        return new CapturePolicy(headLines, tailLines, Long.MAX_VALUE);
+    }
+
+    private static void requireNotNegative(final long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Capture limits must not be negative: " + value);
+        }
+    }
+}
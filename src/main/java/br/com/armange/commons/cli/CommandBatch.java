@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+@Slf4j
+public class CommandBatch implements AutoCloseable {
+
+    public enum Order {
+        COMPLETION, SUBMISSION
+    }
+
+    public enum FailurePolicy {
+        FAIL_FAST, COLLECT_ALL
+    }
+
+    private final CommandRunner commandRunner;
+    private final Order order;
+    private final FailurePolicy failurePolicy;
+    private final ExecutorService executor;
+
+    @Builder
+    private CommandBatch(@NonNull final CommandRunner commandRunner,
+                         final Integer parallelism,
+                         final Order order,
+                         final FailurePolicy failurePolicy) {
+        final int threads = Optional.ofNullable(parallelism)
+                .orElseGet(() -> Runtime.getRuntime().availableProcessors());
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + threads);
+        }
+
+        this.commandRunner = commandRunner;
+        this.order = Optional.ofNullable(order).orElse(Order.COMPLETION);
+        this.failurePolicy = Optional.ofNullable(failurePolicy)
+                .orElse(FailurePolicy.COLLECT_ALL);
+        this.executor = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+                null, true);
+    }
+
+    public BatchSummary run(final Collection<CommandSpec> commandSpecs) {
+        return run(commandSpecs, entry -> {
+        });
+    }
+
+    public BatchSummary run(final Collection<CommandSpec> commandSpecs,
+                            final Consumer<BatchEntry> entryConsumer) {
+        final List<CommandSpec> specs = List.copyOf(commandSpecs);
+        final BlockingQueue<BatchEntry> completed = new LinkedBlockingQueue<>();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final long startedAt = System.nanoTime();
+
+        for (int i = 0; i < specs.size(); i++) {
+            final int index = i;
+
+            executor.execute(() -> completed.add(
+                    execute(index, specs.get(index), failed, startedAt)));
+        }
+
+        final BatchEntry[] entries = new BatchEntry[specs.size()];
+        int next = 0;
+
+        for (int received = 0; received < entries.length; received++) {
+            final BatchEntry entry = take(completed);
+
+            entries[entry.getIndex()] = entry;
+
+            if (order == Order.COMPLETION) {
+                emit(entry, entryConsumer);
+            } else {
+                while (next < entries.length && entries[next] != null) {
+                    emit(entries[next++], entryConsumer);
+                }
+            }
+        }
+
+        return new BatchSummary(Arrays.asList(entries),
+                Duration.ofNanos(System.nanoTime() - startedAt));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private BatchEntry execute(final int index,
+                               final CommandSpec commandSpec,
+                               final AtomicBoolean failed,
+                               final long batchStartedAt) {
+        if (failurePolicy == FailurePolicy.FAIL_FAST && failed.get()) {
+            return BatchEntry.skipped(index, commandSpec);
+        }
+
+        final long startedAt = System.nanoTime();
+        BatchEntry entry;
+
+        try {
+            final CommandResult commandResult = commandRunner.run(commandSpec.getDirectory(),
+                    commandSpec.getOutputLines(), commandSpec.getCommand());
+
+            entry = new BatchEntry(index, commandSpec, commandResult, null,
+                    Duration.ofNanos(startedAt - batchStartedAt),
+                    Duration.ofNanos(System.nanoTime() - startedAt));
+        } catch (final RuntimeException e) {
+            log.debug(e.getMessage(), e);
+
+            entry = new BatchEntry(index, commandSpec, null, e,
+                    Duration.ofNanos(startedAt - batchStartedAt),
+                    Duration.ofNanos(System.nanoTime() - startedAt));
+        }
+
+        if (!entry.isSuccessful()) {
+            failed.set(true);
+        }
+
+        return entry;
+    }
+
+    private static void emit(final BatchEntry entry, final Consumer<BatchEntry> entryConsumer) {
+        if (!entry.isSkipped()) {
+            entryConsumer.accept(entry);
+        }
+    }
+
+    private static BatchEntry take(final BlockingQueue<BatchEntry> completed) {
+        try {
+            return completed.take();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            log.error(e.getMessage(), e);
+
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+}
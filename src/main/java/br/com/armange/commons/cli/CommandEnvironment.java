@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public final class CommandEnvironment {
+
+    private static final CommandEnvironment INHERITED = new CommandEnvironment(true,
+            Collections.emptyMap(), Collections.emptySet());
+    private static final CommandEnvironment EMPTY = new CommandEnvironment(false,
+            Collections.emptyMap(), Collections.emptySet());
+
+    @Getter
+    private final boolean inherited;
+
+    private final Map<String, String> variables;
+    private final Set<String> removedNames;
+
+    private CommandEnvironment(final boolean inherited,
+                               final Map<String, String> variables,
+                               final Set<String> removedNames) {
+        this.inherited = inherited;
+        this.variables = variables;
+        this.removedNames = removedNames;
+    }
+
+    public CommandEnvironment with(final String name, final String value) {
+        return with(Collections.singletonMap(name, value));
+    }
+
+    public CommandEnvironment with(final Map<String, String> newVariables) {
+        final Map<String, String> mergedVariables = new HashMap<>(variables);
+        final Set<String> mergedRemovedNames = new HashSet<>(removedNames);
+
+        newVariables.forEach((name, value) -> {
+            if (name == null || value == null) {
+                throw new IllegalArgumentException(
+                        "Environment variables require a name and a value.");
+            }
+
+            mergedVariables.put(name, value);
+            mergedRemovedNames.remove(name);
+        });
+
+        return new CommandEnvironment(inherited, Collections.unmodifiableMap(mergedVariables),
+                Collections.unmodifiableSet(mergedRemovedNames));
+    }
+
+    public CommandEnvironment without(final String name) {
+        final Map<String, String> newVariables = new HashMap<>(variables);
+        final Set<String> newRemovedNames = new HashSet<>(removedNames);
+
+        newVariables.remove(name);
+
+        if (inherited) {
+            newRemovedNames.add(name);
+        }
+
+        return new CommandEnvironment(inherited, Collections.unmodifiableMap(newVariables),
+                Collections.unmodifiableSet(newRemovedNames));
+    }
+
+    public Map<String, String> asMap() {
+        final Map<String, String> environment = new HashMap<>(inherited
+                ? System.getenv()
+                : Collections.emptyMap());
+
+        environment.keySet().removeAll(removedNames);
+        environment.putAll(variables);
+
+        return Collections.unmodifiableMap(environment);
+    }
+
+    String get(final String name) {
+        if (variables.containsKey(name)) {
+            return variables.get(name);
+        }
+
+        return inherited && !removedNames.contains(name) ? System.getenv(name) : null;
+    }
+
+    void applyTo(final ProcessBuilder processBuilder) {
+        if (this == INHERITED) {
+            return;
+        }
+
+        final Map<String, String> environment = processBuilder.environment();
+
+        if (inherited) {
+            environment.keySet().removeAll(removedNames);
+        } else {
+            environment.clear();
+        }
+
+        environment.putAll(variables);
+    }
+
+    public static CommandEnvironment inherit() {
+        return INHERITED;
+    }
+
+    public static CommandEnvironment empty() {
+        return EMPTY;
+    }
+}
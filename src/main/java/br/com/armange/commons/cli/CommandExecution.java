@@ -0,0 +1,301 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import br.com.armange.commons.cli.util.DaemonThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+@Slf4j
+final class CommandExecution {
+
+    static final String ERROR_MESSAGE = "An internal error occurred and the last action " +
+            "could not be completed.";
+    private static final ScheduledExecutorService TIMEOUT_SCHEDULER = Executors
+            .newSingleThreadScheduledExecutor(new DaemonThreadFactory("commons-cli-timeout-"));
+
+    private final Process process;
+    private final OutputCapture inputs;
+    private final OutputCapture errors;
+    private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+    private final Executor executor;
+    private final CommandTrace trace;
+    private final CompletableFuture<Void> pumpers;
+    private final CompletableFuture<Void> released = new CompletableFuture<>();
+    private volatile CompletableFuture<Void> fed = CompletableFuture.completedFuture(null);
+    private CompletableFuture<Long> transferred = CompletableFuture.completedFuture(0L);
+    private final long startNanos = System.nanoTime();
+    private volatile long lastOutputNanos = System.nanoTime();
+    private volatile Termination termination = Termination.EXITED;
+    private volatile ScheduledFuture<?> watchdog;
+
+    CommandExecution(final Process process,
+                     final CapturePolicy capturePolicy,
+                     final Executor executor) {
+        this(process, capturePolicy, OutputMode.MERGED, executor,
+                new CommandTrace(List.of(), CommandListener.NONE));
+    }
+
+    CommandExecution(final Process process,
+                     final CapturePolicy capturePolicy,
+                     final OutputMode outputMode,
+                     final Executor executor,
+                     final CommandTrace trace) {
+        this.process = process;
+        this.inputs = capturePolicy.newOutputCapture(outputMode == OutputMode.TIMELINE);
+        this.errors = capturePolicy.newOutputCapture(outputMode == OutputMode.TIMELINE);
+        this.executor = executor;
+        this.trace = trace;
+        this.pumpers = pump(inputs::accept, errors::accept);
+    }
+
+    CommandExecution(final Process process,
+                     final Consumer<String> lineConsumer,
+                     final Executor executor,
+                     final CommandTrace trace) {
+        this.process = process;
+        this.inputs = CapturePolicy.unbounded().newOutputCapture();
+        this.errors = CapturePolicy.unbounded().newOutputCapture();
+        this.executor = executor;
+        this.trace = trace;
+        this.pumpers = pump((line, bytes) -> lineConsumer.accept(line),
+                (line, bytes) -> lineConsumer.accept(line));
+    }
+
+    CommandExecution(final Process process,
+                     final CapturePolicy capturePolicy,
+                     final ByteTransfer.Sink sink,
+                     final Executor executor,
+                     final CommandTrace trace) {
+        this.process = process;
+        this.inputs = CapturePolicy.unbounded().newOutputCapture();
+        this.errors = capturePolicy.newOutputCapture();
+        this.executor = executor;
+        this.trace = trace;
+        this.transferred = CompletableFuture.supplyAsync(() -> transfer(sink), executor);
+        this.pumpers = CompletableFuture.allOf(transferred,
+                StreamPumper.pump(process.getErrorStream(), touching(errors::accept),
+                        failures::add, executor));
+    }
+
+    CommandExecution feed(final StdinSource stdinSource, final FlushPolicy flushPolicy) {
+        fed = stdinSource.feed(process, flushPolicy, failures::add, this::stdinWritten, executor);
+
+        return this;
+    }
+
+    CompletableFuture<Void> drained() {
+        return pumpers;
+    }
+
+    long byteCount() {
+        return transferred.getNow(-1L);
+    }
+
+    List<String> partialOutputLines() {
+        return inputs.lines();
+    }
+
+    List<String> partialErrorLines() {
+        return errors.lines();
+    }
+
+    CommandResult await(final Timeouts timeouts) throws InterruptedException {
+        final CompletableFuture<CommandResult> completion = completion(timeouts);
+
+        try {
+            process.waitFor(timeouts.getTimeoutNanos(), TimeUnit.NANOSECONDS);
+
+            return completion.get();
+        } catch (final InterruptedException e) {
+            completion.cancel(true);
+
+            throw e;
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    CompletableFuture<CommandResult> completion(final Timeouts timeouts) {
+        final long deadline = System.nanoTime() + timeouts.getTimeoutNanos();
+        final CompletableFuture<Void> finished = process.onExit()
+                .thenCompose(exitedProcess -> {
+                    trace.exited();
+
+                    return pumpers;
+                })
+                .thenRun(this::releaseStdin);
+        final CompletableFuture<CommandResult> completion = CompletableFuture
+                .anyOf(finished, released)
+                .thenApply(unused -> collectResult());
+
+        watch(finished, deadline, timeouts);
+
+        completion.whenComplete((commandResult, throwable) -> {
+            Optional.ofNullable(watchdog).ifPresent(task -> task.cancel(false));
+            releaseStdin();
+
+            if (completion.isCancelled()) {
+                destroy(timeouts);
+            }
+        });
+
+        return completion;
+    }
+
+    private CompletableFuture<Void> pump(final ObjLongConsumer<String> inputConsumer,
+                                         final ObjLongConsumer<String> errorConsumer) {
+        return CompletableFuture.allOf(
+                StreamPumper.pump(process.getInputStream(), touching(inputConsumer),
+                        failures::add, executor),
+                StreamPumper.pump(process.getErrorStream(), touching(errorConsumer),
+                        failures::add, executor));
+    }
+
+    private long transfer(final ByteTransfer.Sink sink) {
+        try (final InputStream inputStream = ByteTransfer.reporting(process.getInputStream(),
+                bytes -> {
+                    lastOutputNanos = System.nanoTime();
+                    trace.outputBytesRead(bytes);
+                })) {
+            return sink.transferFrom(inputStream);
+        } catch (final IOException e) {
+            Optional.ofNullable(e.getMessage()).ifPresent(failures::add);
+            log.error(e.getMessage(), e);
+
+            return -1;
+        }
+    }
+
+    private void stdinWritten(final CountingOutputStream written) {
+        if (!fed.isCancelled()) {
+            trace.stdinCompleted(written.getBytes(), written.getLines());
+        }
+    }
+
+    private void releaseStdin() {
+        if (fed.cancel(true)) {
+            try {
+                process.getOutputStream().close();
+            } catch (final IOException e) {
+                log.debug(e.getMessage(), e);
+            }
+        }
+    }
+
+    private Consumer<String> touching(final ObjLongConsumer<String> lineConsumer) {
+        return line -> {
+            final long bytes = OutputCapture.sizeOf(line);
+
+            lastOutputNanos = System.nanoTime();
+            trace.outputRead(bytes);
+            lineConsumer.accept(line, bytes);
+        };
+    }
+
+    private void watch(final CompletableFuture<Void> finished,
+                       final long deadline,
+                       final Timeouts timeouts) {
+        if (finished.isDone()) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        long delay = deadline - now;
+
+        if (delay <= 0) {
+            timeout(Termination.TIMED_OUT, timeouts);
+
+            return;
+        }
+
+        if (timeouts.hasIdleTimeout() && process.isAlive()) {
+            final long idleDelay = lastOutputNanos + timeouts.getIdleTimeoutNanos() - now;
+
+            if (idleDelay <= 0) {
+                timeout(Termination.IDLE_TIMED_OUT, timeouts);
+
+                return;
+            }
+
+            delay = Math.min(delay, idleDelay);
+        }
+
+        watchdog = TIMEOUT_SCHEDULER.schedule(() -> watch(finished, deadline, timeouts), delay,
+                TimeUnit.NANOSECONDS);
+    }
+
+    private void timeout(final Termination termination, final Timeouts timeouts) {
+        this.termination = termination;
+
+        trace.timedOut(termination);
+        destroy(timeouts);
+    }
+
+    private void destroy(final Timeouts timeouts) {
+        final ProcessTree processTree = ProcessTree.of(process);
+
+        processTree.terminate();
+
+        TIMEOUT_SCHEDULER.schedule(() -> {
+            if (processTree.isAlive()) {
+                trace.killed();
+            }
+
+            processTree.kill();
+
+            process.onExit().thenRun(() -> {
+                trace.exited();
+                released.complete(null);
+            });
+        }, timeouts.getGracePeriodNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private CommandResult collectResult() {
+        final boolean timedOut = termination != Termination.EXITED;
+        final DefaultCommandResult commandResult = DefaultCommandResult
+                .newDefaultCommandResult(process.exitValue(), inputs, errors, startNanos,
+                        termination);
+
+        failures.forEach(commandResult::appendAdditionalMessage);
+
+        if (timedOut) {
+            commandResult.appendAdditionalMessage(ERROR_MESSAGE);
+        }
+
+        trace.completed(commandResult.getResultCode(), pumpers.isDone());
+
+        return commandResult;
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import br.com.armange.commons.cli.util.DaemonThreadFactory;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CommandExecutors {
+
+    public static final int DEFAULT_POOLED_PLATFORM_THREADS = 256;
+
+    private static final String THREAD_NAME_PREFIX = "commons-cli-pumper-";
+    private static final String OVERFLOW_THREAD_NAME_PREFIX = "commons-cli-pumper-overflow-";
+    private static final String VIRTUAL_THREAD_EXECUTOR_FACTORY = "newVirtualThreadPerTaskExecutor";
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final ExecutorService SHARED_EXECUTOR = Executors
+            .newCachedThreadPool(new DaemonThreadFactory(THREAD_NAME_PREFIX));
+    private static final ThreadFactory OVERFLOW_THREAD_FACTORY =
+            new DaemonThreadFactory(OVERFLOW_THREAD_NAME_PREFIX);
+
+    static ExecutorService sharedExecutor() {
+        return SHARED_EXECUTOR;
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        try {
+            Executors.class.getMethod(VIRTUAL_THREAD_EXECUTOR_FACTORY);
+
+            return true;
+        } catch (final NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public static ExecutorService newVirtualThreadExecutor() {
+        return newVirtualThreadExecutor(DEFAULT_POOLED_PLATFORM_THREADS);
+    }
+
+    public static ExecutorService newVirtualThreadExecutor(final int fallbackPooledThreads) {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod(VIRTUAL_THREAD_EXECUTOR_FACTORY)
+                    .invoke(null);
+        } catch (final ReflectiveOperationException e) {
+            log.debug("Virtual threads are not available, falling back to {} pooled threads.",
+                    fallbackPooledThreads);
+
+            return newElasticThreadExecutor(fallbackPooledThreads);
+        }
+    }
+
+    public static ExecutorService newElasticThreadExecutor(final int pooledThreads) {
+        if (pooledThreads < 1) {
+            throw new IllegalArgumentException("Pooled threads must be positive: " + pooledThreads);
+        }
+
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(pooledThreads, pooledThreads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new DaemonThreadFactory(THREAD_NAME_PREFIX), CommandExecutors::overflow);
+
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    private static void overflow(final Runnable task, final ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Executor has been shut down.");
+        }
+
+        OVERFLOW_THREAD_FACTORY.newThread(task).start();
+    }
+}
@@ -18,6 +18,7 @@
 
 package br.com.armange.commons.cli;
 
+import java.io.Reader;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -34,4 +35,44 @@ public interface CommandResult {
     void appendAdditionalMessage(String message);
 
     Stream<String> stream();
+
+    default List<String> getOutputLines() {
+        return getResultLines();
+    }
+
+    default List<String> getErrorLines() {
+        return List.of();
+    }
+
+    default List<TimelineEntry> getTimeline() {
+        return List.of();
+    }
+
+    default CharSequence getResultCharSequence() {
+        return getResultMessage();
+    }
+
+    default Reader getResultReader() {
+        return new CharSequenceReader(getResultCharSequence());
+    }
+
+    default long getDroppedLines() {
+        return 0;
+    }
+
+    default long getDroppedBytes() {
+        return 0;
+    }
+
+    default boolean isTruncated() {
+        return getDroppedLines() > 0;
+    }
+
+    default Termination getTermination() {
+        return Termination.EXITED;
+    }
+
+    default boolean isTimedOut() {
+        return getTermination() != Termination.EXITED;
+    }
 }
@@ -0,0 +1,298 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import br.com.armange.commons.cli.util.DaemonThreadFactory;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+public class CommandScheduler implements CommandRunner, AsyncCommandRunner, AutoCloseable {
+
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    public enum RejectionPolicy {
+        ABORT, BLOCK
+    }
+
+    private static final String THREAD_NAME_PREFIX = "commons-cli-scheduler-";
+    private static final String CLOSED_MESSAGE = "The scheduler was closed.";
+
+    private final CommandRunner commandRunner;
+    private final RejectionPolicy rejectionPolicy;
+    private final Semaphore queueSlots;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder totalQueueNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private volatile boolean closed;
+
+    @Builder
+    private CommandScheduler(@NonNull final CommandRunner commandRunner,
+                             final Integer maxInFlight,
+                             final Integer queueCapacity,
+                             final RejectionPolicy rejectionPolicy) {
+        final int threads = Optional.ofNullable(maxInFlight)
+                .orElseGet(() -> Runtime.getRuntime().availableProcessors());
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("Max in-flight commands must be positive: "
+                    + threads);
+        }
+
+        this.commandRunner = commandRunner;
+        this.rejectionPolicy = Optional.ofNullable(rejectionPolicy).orElse(RejectionPolicy.BLOCK);
+        this.queueSlots = new Semaphore(Optional.ofNullable(queueCapacity)
+                .orElse(Integer.MAX_VALUE));
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), new DaemonThreadFactory(THREAD_NAME_PREFIX));
+    }
+
+    @Override
+    public CommandResult run(final String... command) {
+        return run(null, null, command);
+    }
+
+    @Override
+    public CommandResult run(final List<String> outputLines, final String... command) {
+        return run(null, outputLines, command);
+    }
+
+    @Override
+    public CommandResult run(final File directory, final String... command) {
+        return run(directory, null, command);
+    }
+
+    @Override
+    public CommandResult run(final File directory,
+                             final List<String> outputLines,
+                             final String... command) {
+        try {
+            return runAsync(directory, outputLines, command).join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> runAsync(final String... command) {
+        return runAsync(null, null, command);
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> runAsync(final List<String> outputLines,
+                                                     final String... command) {
+        return runAsync(null, outputLines, command);
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> runAsync(final File directory,
+                                                     final String... command) {
+        return runAsync(directory, null, command);
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> runAsync(final File directory,
+                                                     final List<String> outputLines,
+                                                     final String... command) {
+        return submit(Priority.NORMAL, directory, outputLines, command)
+                .thenApply(CommandResult.class::cast);
+    }
+
+    public CompletableFuture<ScheduledCommandResult> submit(final Priority priority,
+                                                            final File directory,
+                                                            final List<String> outputLines,
+                                                            final String... command) {
+        acquireQueueSlot();
+        submittedCount.increment();
+
+        final ScheduledCommand scheduledCommand = new ScheduledCommand(priority,
+                sequence.getAndIncrement(), directory, outputLines, command);
+
+        try {
+            executor.execute(scheduledCommand);
+        } catch (final RejectedExecutionException e) {
+            queueSlots.release();
+            rejectedCount.increment();
+
+            throw e;
+        }
+
+        return scheduledCommand.future;
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public int getInFlightCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    public Duration getTotalQueueTime() {
+        return Duration.ofNanos(totalQueueNanos.sum());
+    }
+
+    public Duration getTotalRunTime() {
+        return Duration.ofNanos(totalRunNanos.sum());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+
+        executor.shutdownNow().forEach(runnable -> {
+            queueSlots.release();
+            ((ScheduledCommand) runnable).future.completeExceptionally(
+                    new RejectedExecutionException(
+                            "The scheduler was closed before the command started."));
+        });
+    }
+
+    private void acquireQueueSlot() {
+        checkOpen();
+
+        if (rejectionPolicy == RejectionPolicy.ABORT) {
+            if (!queueSlots.tryAcquire()) {
+                rejectedCount.increment();
+
+                throw new RejectedExecutionException("The command queue is full.");
+            }
+
+            return;
+        }
+
+        try {
+            queueSlots.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            log.error(e.getMessage(), e);
+
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+
+        if (closed) {
+            queueSlots.release();
+            checkOpen();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            rejectedCount.increment();
+
+            throw new RejectedExecutionException(CLOSED_MESSAGE);
+        }
+    }
+
+    private final class ScheduledCommand implements Runnable, Comparable<ScheduledCommand> {
+
+        private final Priority priority;
+        private final long sequence;
+        private final File directory;
+        private final List<String> outputLines;
+        private final String[] command;
+        private final long queuedAt = System.nanoTime();
+        private final CompletableFuture<ScheduledCommandResult> future =
+                new CompletableFuture<>();
+
+        private ScheduledCommand(final Priority priority,
+                                 final long sequence,
+                                 final File directory,
+                                 final List<String> outputLines,
+                                 final String[] command) {
+            this.priority = Optional.ofNullable(priority).orElse(Priority.NORMAL);
+            this.sequence = sequence;
+            this.directory = directory;
+            this.outputLines = outputLines;
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            queueSlots.release();
+
+            if (future.isDone()) {
+                return;
+            }
+
+            final long startedAt = System.nanoTime();
+
+            try {
+                final CommandResult commandResult = commandRunner
+                        .run(directory, outputLines, command);
+                final long finishedAt = System.nanoTime();
+
+                totalQueueNanos.add(startedAt - queuedAt);
+                totalRunNanos.add(finishedAt - startedAt);
+                future.complete(new ScheduledCommandResult(commandResult, priority,
+                        Duration.ofNanos(startedAt - queuedAt),
+                        Duration.ofNanos(finishedAt - startedAt)));
+            } catch (final RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                completedCount.increment();
+            }
+        }
+
+        @Override
+        public int compareTo(final ScheduledCommand other) {
+            final int comparison = priority.compareTo(other.priority);
+
+            return comparison != 0 ? comparison : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Slf4j
+public final class CommandSession implements AutoCloseable {
+
+    public static final int DEFAULT_BACKLOG_LINES = 1024;
+
+    private static final String NO_MATCH_MESSAGE = "The command output ended without a match.";
+
+    private final Process process;
+    private final Executor executor;
+    private final long gracePeriodNanos;
+    private final CommandTrace trace;
+    private volatile boolean timedOut;
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final Deque<String> backlog = new ArrayDeque<>();
+    private final Writer writer;
+    private final CompletableFuture<Void> pumpers;
+    private Expectation pending;
+    private boolean ended;
+
+    private CommandSession(final Process process,
+                           final Executor executor,
+                           final Timeouts timeouts,
+                           final CommandTrace trace) {
+        this.process = process;
+        this.executor = executor;
+        this.gracePeriodNanos = timeouts.getGracePeriodNanos();
+        this.trace = trace;
+        this.writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+        this.pumpers = CompletableFuture.allOf(
+                StreamPumper.pump(process.getInputStream(), this::accept, log::debug, executor),
+                StreamPumper.pump(process.getErrorStream(), this::accept, log::debug, executor));
+        this.pumpers.whenComplete((unused, throwable) -> end());
+        this.pumpers.runAfterBoth(process.onExit(), () -> complete(true));
+
+        CompletableFuture.runAsync(this::expire, CompletableFuture.delayedExecutor(
+                timeouts.getTimeoutNanos(), TimeUnit.NANOSECONDS, executor));
+    }
+
+    public synchronized CompletableFuture<ExpectMatch> expect(final Pattern... patterns) {
+        if (pending != null) {
+            throw new IllegalStateException("Another expectation is still pending.");
+        }
+
+        final Expectation expectation = new Expectation(patterns, executor);
+
+        while (!backlog.isEmpty()) {
+            if (expectation.test(backlog.poll())) {
+                return expectation.future;
+            }
+        }
+
+        if (ended) {
+            expectation.fail();
+        } else {
+            pending = expectation;
+            expectation.future.whenComplete((match, throwable) -> clear(expectation));
+        }
+
+        return expectation.future;
+    }
+
+    public CompletableFuture<ExpectMatch> expect(final Duration timeout,
+                                                 final Pattern... patterns) {
+        return expect(patterns).orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public CompletableFuture<ExpectMatch> expectAndClose(final Pattern... patterns) {
+        return expect(patterns).whenCompleteAsync((match, throwable) -> close(), executor);
+    }
+
+    public CompletableFuture<ExpectMatch> respond(final Pattern pattern, final String response) {
+        return expect(pattern).thenApply(match -> {
+            send(response);
+
+            return match;
+        });
+    }
+
+    public CommandSession send(final String line) {
+        try {
+            synchronized (writer) {
+                writer.write(line);
+                writer.write('\n');
+                writer.flush();
+            }
+
+            return this;
+        } catch (final IOException e) {
+            log.error(e.getMessage(), e);
+
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+    }
+
+    public void closeInput() {
+        try {
+            synchronized (writer) {
+                writer.close();
+            }
+        } catch (final IOException e) {
+            log.debug(e.getMessage(), e);
+        }
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public long pid() {
+        return process.pid();
+    }
+
+    public CompletableFuture<Integer> onExit() {
+        return process.onExit().thenApply(Process::exitValue);
+    }
+
+    @Override
+    public void close() {
+        closeInput();
+
+        try {
+            complete(ProcessTree.terminate(List.of(process), pumpers, gracePeriodNanos));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            log.error(e.getMessage(), e);
+
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private void expire() {
+        if (!completed.get()) {
+            timedOut = true;
+
+            trace.timedOut(Termination.TIMED_OUT);
+            close();
+        }
+    }
+
+    private void complete(final boolean drained) {
+        if (completed.compareAndSet(false, true)) {
+            trace.completed(process.isAlive() ? -1 : process.exitValue(), drained);
+        }
+    }
+
+    private synchronized void accept(final String line) {
+        trace.outputRead(OutputCapture.sizeOf(line));
+
+        if (pending != null) {
+            final Expectation expectation = pending;
+
+            pending = null;
+
+            if (!expectation.test(line)) {
+                pending = expectation;
+            }
+
+            return;
+        }
+
+        if (backlog.size() == DEFAULT_BACKLOG_LINES) {
+            backlog.poll();
+        }
+
+        backlog.add(line);
+    }
+
+    private synchronized void end() {
+        ended = true;
+
+        if (pending != null) {
+            final Expectation expectation = pending;
+
+            pending = null;
+            expectation.fail();
+        }
+    }
+
+    private synchronized void clear(final Expectation expectation) {
+        if (pending == expectation) {
+            pending = null;
+        }
+    }
+
+    static CommandSession newCommandSession(final Process process,
+                                            final Executor executor,
+                                            final Timeouts timeouts,
+                                            final CommandTrace trace) {
+        return new CommandSession(process, executor, timeouts, trace);
+    }
+
+    private static final class Expectation {
+
+        private final Pattern[] patterns;
+        private final Executor executor;
+        private final CompletableFuture<ExpectMatch> future = new CompletableFuture<>();
+
+        private Expectation(final Pattern[] patterns, final Executor executor) {
+            this.patterns = patterns;
+            this.executor = executor;
+        }
+
+        private boolean test(final String line) {
+            for (int i = 0; i < patterns.length; i++) {
+                final Matcher matcher = patterns[i].matcher(line);
+
+                if (matcher.find()) {
+                    final ExpectMatch match = new ExpectMatch(i, line, matcher.toMatchResult());
+
+                    future.completeAsync(() -> match, executor);
+
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private void fail() {
+            executor.execute(() -> future.completeExceptionally(
+                    new IllegalStateException(NO_MATCH_MESSAGE)));
+        }
+    }
+}
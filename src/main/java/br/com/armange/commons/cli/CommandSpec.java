@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.File;
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CommandSpec {
+
+    private final File directory;
+    private final List<String> outputLines;
+    private final String[] command;
+
+    public String[] getCommand() {
+        return command.clone();
+    }
+
+    public static CommandSpec of(final String... command) {
+        return new CommandSpec(null, null, command.clone());
+    }
+
+    public static CommandSpec of(final File directory, final String... command) {
+        return new CommandSpec(directory, null, command.clone());
+    }
+
+    public static CommandSpec of(final File directory,
+                                 final List<String> outputLines,
+                                 final String... command) {
+        return new CommandSpec(directory, outputLines, command.clone());
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+@Slf4j
+public final class CommandTrace {
+
+    private static final long UNSET = 0;
+
+    @Getter
+    private final List<String> command;
+    private final CommandListener listener;
+    private final AtomicBoolean firstOutput = new AtomicBoolean();
+    private final AtomicLong linesRead = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final long queuedNanos = System.nanoTime();
+    private volatile long startedNanos;
+    private volatile long firstOutputNanos;
+    private volatile long exitedNanos;
+    private volatile long drainedNanos;
+
+    @Getter
+    private volatile long pid = -1;
+
+    @Getter
+    private volatile long linesWritten;
+
+    @Getter
+    private volatile long bytesWritten;
+
+    @Getter
+    private volatile int resultCode;
+
+    @Getter
+    private volatile Termination termination = Termination.EXITED;
+
+    @Getter
+    private volatile boolean killed;
+
+    CommandTrace(final List<String> command, final CommandListener listener) {
+        this.command = command;
+        this.listener = listener;
+    }
+
+    public long getLinesRead() {
+        return linesRead.get();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    public Duration getSpawnLatency() {
+        return between(queuedNanos, startedNanos);
+    }
+
+    public Duration getTimeToFirstOutput() {
+        return between(startedNanos, firstOutputNanos);
+    }
+
+    public Duration getRunTime() {
+        return between(startedNanos, exitedNanos);
+    }
+
+    public Duration getDrainTime() {
+        return between(exitedNanos, drainedNanos);
+    }
+
+    public Duration getLatency() {
+        return between(queuedNanos, Math.max(exitedNanos, drainedNanos));
+    }
+
+    void queued() {
+        fire(CommandListener::onQueued);
+    }
+
+    void started(final long pid) {
+        this.pid = pid;
+        this.startedNanos = System.nanoTime();
+
+        fire(CommandListener::onStarted);
+    }
+
+    void outputRead(final long bytes) {
+        linesRead.incrementAndGet();
+        outputBytesRead(bytes);
+    }
+
+    void outputBytesRead(final long bytes) {
+        bytesRead.addAndGet(bytes);
+
+        if (!firstOutput.get() && firstOutput.compareAndSet(false, true)) {
+            firstOutputNanos = System.nanoTime();
+
+            fire(CommandListener::onFirstOutput);
+        }
+    }
+
+    void stdinCompleted(final long bytesWritten, final long linesWritten) {
+        this.bytesWritten = bytesWritten;
+        this.linesWritten = linesWritten;
+
+        fire(CommandListener::onStdinComplete);
+    }
+
+    void timedOut(final Termination termination) {
+        this.termination = termination;
+
+        fire(CommandListener::onTimedOut);
+    }
+
+    void killed() {
+        this.killed = true;
+
+        fire(CommandListener::onKilled);
+    }
+
+    void exited() {
+        if (exitedNanos == UNSET) {
+            exitedNanos = System.nanoTime();
+        }
+    }
+
+    void completed(final int resultCode, final boolean drained) {
+        this.resultCode = resultCode;
+
+        exited();
+
+        if (drained) {
+            drainedNanos = System.nanoTime();
+        }
+
+        fire(CommandListener::onExited);
+    }
+
+    private void fire(final BiConsumer<CommandListener, CommandTrace> event) {
+        try {
+            event.accept(listener, this);
+        } catch (final RuntimeException e) {
+            log.warn(e.getMessage(), e);
+        }
+    }
+
+    private static Duration between(final long startNanos, final long endNanos) {
+        return startNanos == UNSET || endNanos == UNSET
+                ? Duration.ZERO
+                : Duration.ofNanos(Math.max(0, endNanos - startNanos));
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+final class CountingOutputStream extends FilterOutputStream {
+
+    @Getter(AccessLevel.PACKAGE)
+    private long bytes;
+
+    @Getter(AccessLevel.PACKAGE)
+    private long lines;
+
+    CountingOutputStream(final OutputStream outputStream) {
+        super(outputStream);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        out.write(b);
+        count(b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        out.write(b, off, len);
+
+        for (int i = off; i < off + len; i++) {
+            count(b[i]);
+        }
+    }
+
+    private void count(final int b) {
+        bytes++;
+
+        if (b == '\n') {
+            lines++;
+        }
+    }
+}
@@ -21,41 +21,99 @@ package br.com.armange.commons.cli;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 
+import java.time.Duration;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.stream.Stream;
 
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public class DefaultCommandResult implements CommandResult {
 
-    private static final String NEW_LINE = "\n";
+    private static final char NEW_LINE = '\n';
 
     @Getter
     private final int resultCode;
 
+    private final LineBuffer resultLines;
+
+    @Getter
+    private final long droppedLines;
+
     @Getter
-    private final List<String> resultLines;
+    private final long droppedBytes;
 
     @Getter
-    private String additionalMessage = "";
+    private final Termination termination;
+
+    private final int outputLineCount;
+    private final int[] timelineOrder;
+    private final long[] timelineOffsets;
+
+    private final StringBuilder additionalMessage = new StringBuilder();
+    private boolean additionalMessageBlank = true;
+    private String resultMessage;
+
+    @Override
+    public List<String> getResultLines() {
+        return resultLines;
+    }
+
+    @Override
+    public List<String> getOutputLines() {
+        return resultLines.subList(0, outputLineCount);
+    }
+
+    @Override
+    public List<String> getErrorLines() {
+        return resultLines.subList(outputLineCount, resultLines.size());
+    }
+
+    @Override
+    public List<TimelineEntry> getTimeline() {
+        return timelineOrder.length == 0 ? List.of() : new Timeline();
+    }
+
+    @Override
+    public synchronized String getAdditionalMessage() {
+        return additionalMessage.toString();
+    }
 
     @Override
-    public String getResultMessage() {
-        final String message = String.join(NEW_LINE, resultLines);
+    public synchronized String getResultMessage() {
+        if (resultMessage == null) {
+            resultMessage = isOutputBlank()
+                    ? additionalMessage.toString()
+                    : resultLines.textString().concat(additionalMessage.toString());
+        }
 
-        return !message.isBlank()
-                ? message.concat(NEW_LINE).concat(additionalMessage)
-                : String.join(NEW_LINE, additionalMessage);
+        return resultMessage;
     }
 
     @Override
-    public void appendAdditionalMessage(final String message) {
-        if (!additionalMessage.isBlank()) {
-            additionalMessage = additionalMessage + NEW_LINE + message;
+    public synchronized CharSequence getResultCharSequence() {
+        if (resultMessage != null || isOutputBlank()) {
+            return getResultMessage();
+        }
+
+        return additionalMessage.length() == 0
+                ? resultLines.text()
+                : new Concatenation(resultLines.text(), additionalMessage.toString());
+    }
+
+    @Override
+    public synchronized void appendAdditionalMessage(final String message) {
+        if (additionalMessageBlank) {
+            additionalMessage.setLength(0);
         } else {
-            additionalMessage = message;
+            additionalMessage.append(NEW_LINE);
         }
+
+        additionalMessage.append(message);
+        additionalMessageBlank = additionalMessageBlank && message.isBlank();
+        resultMessage = null;
     }
 
     @Override
@@ -63,8 +121,142 @@ public class DefaultCommandResult implements CommandResult {
         return resultLines.stream();
     }
 
+    private boolean isOutputBlank() {
+        return resultLines.isBlank();
+    }
+
     public static DefaultCommandResult newDefaultCommandResult(final int resultCode,
                                                                final List<String> resultLines) {
-        return new DefaultCommandResult(resultCode, resultLines);
+        return newDefaultCommandResult(resultCode, resultLines, 0, 0, Termination.EXITED);
+    }
+
+    public static DefaultCommandResult newDefaultCommandResult(final int resultCode,
+                                                               final List<String> resultLines,
+                                                               final long droppedLines,
+                                                               final long droppedBytes) {
+        return newDefaultCommandResult(resultCode, resultLines, droppedLines, droppedBytes,
+                Termination.EXITED);
+    }
+
+    public static DefaultCommandResult newDefaultCommandResult(final int resultCode,
+                                                               final List<String> resultLines,
+                                                               final long droppedLines,
+                                                               final long droppedBytes,
+                                                               final Termination termination) {
+        return newDefaultCommandResult(resultCode, resultLines, List.of(), droppedLines,
+                droppedBytes, termination);
+    }
+
+    static DefaultCommandResult newDefaultCommandResult(final int resultCode,
+                                                        final List<String> outputLines,
+                                                        final List<String> errorLines,
+                                                        final long droppedLines,
+                                                        final long droppedBytes,
+                                                        final Termination termination) {
+        return new DefaultCommandResult(resultCode, LineBuffer.of(concat(outputLines, errorLines)),
+                droppedLines, droppedBytes, termination, outputLines.size(), new int[0],
+                new long[0]);
+    }
+
+    static DefaultCommandResult newDefaultCommandResult(final int resultCode,
+                                                        final OutputCapture outputs,
+                                                        final OutputCapture errors,
+                                                        final long startNanos,
+                                                        final Termination termination) {
+        final List<String> outputLines = outputs.lines();
+        final long[] outputTimestamps = outputs.timestamps();
+        final long[] errorTimestamps = errors.timestamps();
+        final int[] timelineOrder = new int[outputTimestamps.length + errorTimestamps.length];
+        final long[] timelineOffsets = new long[timelineOrder.length];
+
+        for (int i = 0, output = 0, error = 0; i < timelineOrder.length; i++) {
+            final boolean fromOutput = error == errorTimestamps.length
+                    || output < outputTimestamps.length
+                    && outputTimestamps[output] <= errorTimestamps[error];
+            final int index = fromOutput ? output++ : outputLines.size() + error++;
+
+            timelineOrder[i] = index;
+            timelineOffsets[index] = (fromOutput
+                    ? outputTimestamps[output - 1]
+                    : errorTimestamps[error - 1]) - startNanos;
+        }
+
+        return new DefaultCommandResult(resultCode,
+                LineBuffer.of(concat(outputLines, errors.lines())),
+                outputs.getDroppedLines() + errors.getDroppedLines(),
+                outputs.getDroppedBytes() + errors.getDroppedBytes(), termination,
+                outputLines.size(), timelineOrder, timelineOffsets);
+    }
+
+    private static List<String> concat(final List<String> first, final List<String> second) {
+        if (second.isEmpty()) {
+            return first;
+        }
+
+        final List<String> lines = new ArrayList<>(first.size() + second.size());
+
+        lines.addAll(first);
+        lines.addAll(second);
+
+        return lines;
+    }
+
+    private final class Timeline extends AbstractList<TimelineEntry> implements RandomAccess {
+
+        @Override
+        public TimelineEntry get(final int index) {
+            final int lineIndex = timelineOrder[index];
+
+            return new TimelineEntry(
+                    lineIndex < outputLineCount ? OutputSource.STDOUT : OutputSource.STDERR,
+                    Duration.ofNanos(timelineOffsets[lineIndex]), resultLines.get(lineIndex));
+        }
+
+        @Override
+        public int size() {
+            return timelineOrder.length;
+        }
+    }
+
+    private static final class Concatenation implements CharSequence {
+
+        private final CharSequence first;
+        private final CharSequence second;
+
+        private Concatenation(final CharSequence first, final CharSequence second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int length() {
+            return first.length() + second.length();
+        }
+
+        @Override
+        public char charAt(final int index) {
+            return index < first.length()
+                    ? first.charAt(index)
+                    : second.charAt(index - first.length());
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            if (end <= first.length()) {
+                return first.subSequence(start, end);
+            }
+
+            if (start >= first.length()) {
+                return second.subSequence(start - first.length(), end - first.length());
+            }
+
+            return new Concatenation(first.subSequence(start, first.length()),
+                    second.subSequence(0, end - first.length()));
+        }
+
+        @Override
+        public String toString() {
+            return first.toString().concat(second.toString());
+        }
     }
 }
@@ -18,36 +18,54 @@
 
 package br.com.armange.commons.cli;
 
-import br.com.armange.commons.cli.util.CollectionsUtil;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.*;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 @Slf4j
-public class DefaultCommandRunner implements CommandRunner {
+public class DefaultCommandRunner implements CommandRunner, AsyncCommandRunner,
+        StreamingCommandRunner, MonitoredCommandRunner {
 
-    private static final String ERROR_MESSAGE = "An internal error occurred and the last action " +
-            "could not be completed.";
+    private static final Duration DEFAULT_GRACE_PERIOD = Duration.ofSeconds(5);
+    private static final String PIPE = "|";
+    private static final String SESSION_OUTPUT_MESSAGE = "A session cannot read an output " +
+            "redirected to a file.";
+    private static final CommandRunner DEFAULT_COMMAND_RUNNER = new DefaultCommandRunner();
 
     private final File sourceInputString;
     private final File targetOutputStream;
     private final File targetErrorStream;
     private final Integer timeoutValue;
     private final TimeUnit timeoutUnit;
+    private final CapturePolicy capturePolicy;
+    private final Executor executor;
+    private final FlushPolicy flushPolicy;
+    private final Duration idleTimeout;
+    private final Duration gracePeriod;
+    private final CommandListener listener;
+    private final OutputMode outputMode;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final CommandEnvironment environment;
 
     public DefaultCommandRunner() {
-        this.sourceInputString = null;
-        this.targetOutputStream = null;
-        this.targetErrorStream = null;
-        this.timeoutValue = null;
-        this.timeoutUnit = null;
+        this(null, null, null, null, null, null, null, null, null, null, null, null, null);
     }
 
     public DefaultCommandRunner(final File sourceInputString,
@@ -55,16 +73,43 @@ public class DefaultCommandRunner implements CommandRunner {
                                 final File targetErrorStream,
                                 final Integer timeoutValue,
                                 final TimeUnit timeoutUnit) {
+        this(sourceInputString, targetOutputStream, targetErrorStream, timeoutValue, timeoutUnit,
+                null, null, null, null, null, null, null, null);
+    }
+
+    @Builder
+    private DefaultCommandRunner(final File sourceInputString,
+                                 final File targetOutputStream,
+                                 final File targetErrorStream,
+                                 final Integer timeoutValue,
+                                 final TimeUnit timeoutUnit,
+                                 final CapturePolicy capturePolicy,
+                                 final Executor executor,
+                                 final FlushPolicy flushPolicy,
+                                 final Duration idleTimeout,
+                                 final Duration gracePeriod,
+                                 final CommandListener listener,
+                                 final OutputMode outputMode,
+                                 final CommandEnvironment environment) {
         this.sourceInputString = sourceInputString;
         this.targetOutputStream = targetOutputStream;
         this.targetErrorStream = targetErrorStream;
         this.timeoutValue = timeoutValue;
         this.timeoutUnit = timeoutUnit;
+        this.capturePolicy = Optional.ofNullable(capturePolicy).orElseGet(CapturePolicy::unbounded);
+        this.executor = Optional.ofNullable(executor).orElseGet(CommandExecutors::sharedExecutor);
+        this.flushPolicy = Optional.ofNullable(flushPolicy).orElse(FlushPolicy.BUFFERED);
+        this.idleTimeout = idleTimeout;
+        this.gracePeriod = Optional.ofNullable(gracePeriod).orElse(DEFAULT_GRACE_PERIOD);
+        this.listener = Optional.ofNullable(listener).orElse(CommandListener.NONE);
+        this.outputMode = Optional.ofNullable(outputMode).orElse(OutputMode.MERGED);
+        this.environment = Optional.ofNullable(environment)
+                .orElseGet(CommandEnvironment::inherit);
     }
 
     @Override
     public CommandResult run(final String... command) {
-        return run(null, null, command);
+        return run(null, StdinSource.none(), command);
     }
 
     @Override
@@ -74,30 +119,206 @@ public class DefaultCommandRunner implements CommandRunner {
 
     @Override
     public CommandResult run(final File directory, String... command) {
-        return run(directory, null, command);
+        return run(directory, StdinSource.none(), command);
     }
 
     @Override
     public CommandResult run(final File directory,
                              final List<String> outputLines,
                              final String... command) {
+        return run(directory, StdinSource.lines(outputLines), command);
+    }
+
+    public CommandResult run(final File directory,
+                             final StdinSource stdinSource,
+                             final String... command) {
+        try {
+            final CommandTrace trace = newTrace(command);
+
+            return new CommandExecution(startProcess(directory, command, trace), capturePolicy,
+                    outputMode, executor, trace)
+                    .feed(stdinSource, flushPolicy)
+                    .await(timeouts());
+        } catch (final IOException e) {
+            log.error(e.getMessage(), e);
+
+            throw new UncheckedIOException(e.getMessage(), e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            log.error(e.getMessage(), e);
+
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> runAsync(final String... command) {
+        return runAsync(null, StdinSource.none(), command);
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> runAsync(final List<String> outputLines,
+                                                     final String... command) {
+        return runAsync(null, outputLines, command);
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> runAsync(final File directory,
+                                                     final String... command) {
+        return runAsync(directory, StdinSource.none(), command);
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> runAsync(final File directory,
+                                                     final List<String> outputLines,
+                                                     final String... command) {
+        return runAsync(directory, StdinSource.lines(outputLines), command);
+    }
+
+    public CompletableFuture<CommandResult> runAsync(final File directory,
+                                                     final StdinSource stdinSource,
+                                                     final String... command) {
+        try {
+            final CommandTrace trace = newTrace(command);
+
+            return new CommandExecution(startProcess(directory, command, trace), capturePolicy,
+                    outputMode, executor, trace)
+                    .feed(stdinSource, flushPolicy)
+                    .completion(timeouts());
+        } catch (final IOException e) {
+            log.error(e.getMessage(), e);
+
+            return CompletableFuture.failedFuture(new UncheckedIOException(e.getMessage(), e));
+        }
+    }
+
+    @Override
+    public RunningCommand start(final String... command) {
+        return start(null, StdinSource.none(), command);
+    }
+
+    @Override
+    public RunningCommand start(final File directory, final String... command) {
+        return start(directory, StdinSource.none(), command);
+    }
+
+    @Override
+    public RunningCommand start(final File directory,
+                                final StdinSource stdinSource,
+                                final String... command) {
+        try {
+            final CommandTrace trace = newTrace(command);
+            final Process process = startProcess(directory, command, trace);
+            final CommandExecution execution = new CommandExecution(process, capturePolicy,
+                    outputMode, executor, trace)
+                    .feed(stdinSource, flushPolicy);
+
+            return new RunningCommand(process, execution, trace, timeouts());
+        } catch (final IOException e) {
+            log.error(e.getMessage(), e);
+
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public StreamingCommandResult runStreaming(final String... command) {
+        return runStreaming(null, StdinSource.none(), command);
+    }
+
+    @Override
+    public StreamingCommandResult runStreaming(final List<String> outputLines,
+                                               final String... command) {
+        return runStreaming(null, outputLines, command);
+    }
+
+    @Override
+    public StreamingCommandResult runStreaming(final File directory, final String... command) {
+        return runStreaming(directory, StdinSource.none(), command);
+    }
+
+    @Override
+    public StreamingCommandResult runStreaming(final File directory,
+                                               final List<String> outputLines,
+                                               final String... command) {
+        return runStreaming(directory, StdinSource.lines(outputLines), command);
+    }
+
+    public StreamingCommandResult runStreaming(final File directory,
+                                               final StdinSource stdinSource,
+                                               final String... command) {
         try {
-            final Process process = startProcess(directory, outputLines, command);
-            final boolean result = process.waitFor(
-                    Optional.ofNullable(timeoutValue).orElse(10),
-                    Optional.ofNullable(timeoutUnit).orElse(TimeUnit.SECONDS));
+            final CommandTrace trace = newTrace(command);
+
+            return StreamingCommandResult.newStreamingCommandResult(
+                    startProcess(directory, command, trace), stdinSource, flushPolicy, executor,
+                    timeouts(), trace);
+        } catch (final IOException e) {
+            log.error(e.getMessage(), e);
+
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+    }
 
-            if (!result) {
-                process.destroy();
+    public CommandSession startSession(final String... command) {
+        return startSession(null, command);
+    }
+
+    public CommandSession startSession(final File directory, final String... command) {
+        if (targetOutputStream != null) {
+            throw new IllegalStateException(SESSION_OUTPUT_MESSAGE);
+        }
 
-                final CommandResult commandResult = extractResultMessage(process, 1);
+        try {
+            final CommandTrace trace = newTrace(command);
 
-                commandResult.appendAdditionalMessage(ERROR_MESSAGE);
+            return CommandSession.newCommandSession(startProcess(directory, command, trace),
+                    executor, timeouts(), trace);
+        } catch (final IOException e) {
+            log.error(e.getMessage(), e);
 
-                return commandResult;
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+    }
+
+    public PipelineCommandResult runPipeline(final List<List<String>> commands) {
+        return runPipeline(null, null, commands);
+    }
+
+    public PipelineCommandResult runPipeline(final File directory,
+                                             final List<String> outputLines,
+                                             final List<List<String>> commands) {
+        if (commands == null || commands.isEmpty()) {
+            throw new IllegalArgumentException("A pipeline requires at least one command.");
+        }
+
+        try {
+            final List<ProcessBuilder> processBuilders = new ArrayList<>(commands.size());
+
+            for (final List<String> command : commands) {
+                final ProcessBuilder processBuilder = new ProcessBuilder(command);
+
+                Optional.ofNullable(directory).ifPresent(processBuilder::directory);
+                Optional.ofNullable(targetErrorStream).map(Redirect::appendTo)
+                        .ifPresent(processBuilder::redirectError);
+                environment.applyTo(processBuilder);
+                processBuilders.add(processBuilder);
             }
 
-            return extractResultMessage(process, process.exitValue());
+            Optional.ofNullable(sourceInputString)
+                    .ifPresent(processBuilders.get(0)::redirectInput);
+            Optional.ofNullable(targetOutputStream)
+                    .ifPresent(processBuilders.get(processBuilders.size() - 1)::redirectOutput);
+
+            final CommandTrace trace = newTrace(commands);
+            final List<Process> processes = ProcessBuilder.startPipeline(processBuilders);
+
+            trace.started(processes.get(0).pid());
+
+            return new PipelineExecution(processes, capturePolicy, executor, trace)
+                    .feed(StdinSource.lines(outputLines), flushPolicy)
+                    .await(timeouts());
         } catch (final IOException e) {
             log.error(e.getMessage(), e);
 
@@ -111,86 +332,200 @@ public class DefaultCommandRunner implements CommandRunner {
         }
     }
 
-    Process startProcess(final File directory,
-                                 final List<String> outputLines,
-                                 final String[] command) throws IOException {
-        final ProcessBuilder processBuilder = new ProcessBuilder(command);
+    public ByteCommandResult runBytes(final File directory,
+                                      final List<String> outputLines,
+                                      final OutputStream target,
+                                      final String... command) {
+        return runBytes(directory, StdinSource.lines(outputLines),
+                inputStream -> ByteTransfer.transfer(inputStream, target), command);
+    }
 
-        processBuilder.redirectErrorStream(true);
+    public ByteCommandResult runBytes(final File directory,
+                                      final List<String> outputLines,
+                                      final Path target,
+                                      final String... command) {
+        try (final FileChannel fileChannel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return runBytes(directory, outputLines, fileChannel, command);
+        } catch (final IOException e) {
+            log.error(e.getMessage(), e);
 
-        Optional.ofNullable(sourceInputString).ifPresent(processBuilder::redirectInput);
-        Optional.ofNullable(targetOutputStream).ifPresent(processBuilder::redirectOutput);
-        Optional.ofNullable(targetErrorStream).ifPresent(processBuilder::redirectError);
-        Optional.ofNullable(directory).ifPresent(processBuilder::directory);
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+    }
+
+    public ByteCommandResult runBytes(final File directory,
+                                      final List<String> outputLines,
+                                      final WritableByteChannel target,
+                                      final String... command) {
+        return runBytes(directory, StdinSource.lines(outputLines),
+                inputStream -> ByteTransfer.transfer(inputStream, target), command);
+    }
 
-        final Process process = processBuilder.start();
+    private ByteCommandResult runBytes(final File directory,
+                                       final StdinSource stdinSource,
+                                       final ByteTransfer.Sink sink,
+                                       final String... command) {
+        try {
+            final CommandTrace trace = newTrace(command);
+            final Process process = newProcessBuilder(directory, command).start();
 
-        writeOutput(outputLines, process);
+            trace.started(process.pid());
 
-        return process;
-    }
+            final CommandExecution execution = new CommandExecution(process, capturePolicy, sink,
+                    executor, trace).feed(stdinSource, flushPolicy);
+            final CommandResult commandResult = execution.await(timeouts());
 
-    private void writeOutput(final List<String> outputLines,
-                             final Process process) throws IOException {
-        if (CollectionsUtil.isNotEmpty(outputLines)) {
-            try (final OutputStreamWriter writer = new OutputStreamWriter(
-                    process.getOutputStream())) {
-                for (final String line : outputLines) {
-                    writer.write(line);
-                    writer.write("\n");
-                    writer.flush();
-                }
-            }
+            return new ByteCommandResult(commandResult, execution.byteCount());
+        } catch (final IOException e) {
+            log.error(e.getMessage(), e);
+
+            throw new UncheckedIOException(e.getMessage(), e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            log.error(e.getMessage(), e);
+
+            throw new IllegalStateException(e.getMessage(), e);
         }
     }
 
-    private CommandResult extractResultMessage(final Process process, final int resultCode) {
-        final List<String> inputs = new ArrayList<>();
-        final DefaultCommandResult commandResult = DefaultCommandResult
-                .newDefaultCommandResult(resultCode, inputs);
+    public ByteCommandResult runRecords(final RecordParser parser,
+                                        final Consumer<OutputRecord> recordConsumer,
+                                        final String... command) {
+        return runRecords(null, null, parser, recordConsumer, command);
+    }
+
+    public ByteCommandResult runRecords(final File directory,
+                                        final List<String> outputLines,
+                                        final RecordParser parser,
+                                        final Consumer<OutputRecord> recordConsumer,
+                                        final String... command) {
+        final RecordChannel recordChannel = new RecordChannel(parser, recordConsumer);
+        final ByteCommandResult commandResult = runBytes(directory, outputLines, recordChannel,
+                command);
 
-        try (
-                final var bufferedInputReader = new BufferedReader(new
-                        InputStreamReader(process.getInputStream()));
-                final var bufferedErrorReader = new BufferedReader(new
-                        InputStreamReader(process.getErrorStream()))
-        ) {
-            addAllLines(bufferedInputReader, inputs, commandResult);
-            addAllLines(bufferedErrorReader, inputs, commandResult);
+        try {
+            recordChannel.finish();
         } catch (final IOException e) {
-            commandResult.appendAdditionalMessage(e.getMessage());
             log.error(e.getMessage(), e);
+
+            commandResult.appendAdditionalMessage(e.getMessage());
         }
 
         return commandResult;
     }
 
-    private void addAllLines(final BufferedReader bufferedErrorReader,
-                             final List<String> inputs,
-                             final DefaultCommandResult commandResult) {
+    public SpillingCommandResult runSpilling(final long memoryThreshold,
+                                             final String... command) {
+        return runSpilling(null, null, memoryThreshold, command);
+    }
+
+    public SpillingCommandResult runSpilling(final File directory,
+                                             final List<String> outputLines,
+                                             final long memoryThreshold,
+                                             final String... command) {
+        if (memoryThreshold < 0 || memoryThreshold > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid memory threshold: " + memoryThreshold);
+        }
+
+        final SpillBuffer spillBuffer = new SpillBuffer(memoryThreshold);
+
         try {
-            inputs.addAll(bufferedErrorReader.lines().collect(Collectors.toList()));
-        } catch (final Exception e) {
-            commandResult.appendAdditionalMessage(e.getMessage());
+            final ByteCommandResult commandResult = runBytes(directory, outputLines, spillBuffer,
+                    command);
+
+            spillBuffer.finish();
+
+            return new SpillingCommandResult(commandResult, spillBuffer);
+        } catch (final IOException e) {
+            spillBuffer.close();
             log.error(e.getMessage(), e);
+
+            throw new UncheckedIOException(e.getMessage(), e);
+        } catch (final RuntimeException e) {
+            spillBuffer.close();
+
+            throw e;
         }
     }
 
-    public static synchronized CommandResult runCmd(final String... command) {
-        return new DefaultCommandRunner().run(command);
+    private Timeouts timeouts() {
+        return new Timeouts(
+                Optional.ofNullable(timeoutUnit).orElse(TimeUnit.SECONDS)
+                        .toNanos(Optional.ofNullable(timeoutValue).orElse(10)),
+                Optional.ofNullable(idleTimeout).map(Duration::toNanos).orElse(0L),
+                gracePeriod.toNanos());
+    }
+
+    private CommandTrace newTrace(final String[] command) {
+        final CommandTrace trace = new CommandTrace(List.of(command), listener);
+
+        trace.queued();
+
+        return trace;
+    }
+
+    private CommandTrace newTrace(final List<List<String>> commands) {
+        final List<String> pipeline = new ArrayList<>();
+
+        for (final List<String> command : commands) {
+            if (!pipeline.isEmpty()) {
+                pipeline.add(PIPE);
+            }
+
+            pipeline.addAll(command);
+        }
+
+        return newTrace(pipeline.toArray(String[]::new));
+    }
+
+    private Process startProcess(final File directory,
+                                 final String[] command,
+                                 final CommandTrace trace) throws IOException {
+        final Process process = startProcess(directory, command);
+
+        trace.started(process.pid());
+
+        return process;
+    }
+
+    Process startProcess(final File directory, final String[] command) throws IOException {
+        final ProcessBuilder processBuilder = newProcessBuilder(directory, command);
+
+        processBuilder.redirectErrorStream(outputMode == OutputMode.MERGED);
+
+        Optional.ofNullable(targetOutputStream).ifPresent(processBuilder::redirectOutput);
+
+        return processBuilder.start();
+    }
+
+    private ProcessBuilder newProcessBuilder(final File directory, final String[] command) {
+        final ProcessBuilder processBuilder = new ProcessBuilder(command);
+
+        Optional.ofNullable(sourceInputString).ifPresent(processBuilder::redirectInput);
+        Optional.ofNullable(targetErrorStream).ifPresent(processBuilder::redirectError);
+        Optional.ofNullable(directory).ifPresent(processBuilder::directory);
+        environment.applyTo(processBuilder);
+
+        return processBuilder;
+    }
+
+    public static CommandResult runCmd(final String... command) {
+        return DEFAULT_COMMAND_RUNNER.run(command);
     }
 
-    public static synchronized CommandResult runCmd(List<String> outputLines, String... command) {
-        return new DefaultCommandRunner().run(outputLines, command);
+    public static CommandResult runCmd(List<String> outputLines, String... command) {
+        return DEFAULT_COMMAND_RUNNER.run(outputLines, command);
     }
 
-    public static synchronized CommandResult runCmd(final File directory, String... command) {
-        return new DefaultCommandRunner().run(directory, command);
+    public static CommandResult runCmd(final File directory, String... command) {
+        return DEFAULT_COMMAND_RUNNER.run(directory, command);
     }
 
-    public static synchronized CommandResult runCmd(final File directory,
+    public static CommandResult runCmd(final File directory,
                                        final List<String> outputLines,
                                        final String... command) {
-        return new DefaultCommandRunner().run(directory, outputLines, command);
+        return DEFAULT_COMMAND_RUNNER.run(directory, outputLines, command);
     }
 }
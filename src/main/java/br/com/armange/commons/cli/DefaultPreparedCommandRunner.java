@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class DefaultPreparedCommandRunner implements PreparedCommandRunner {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}]+)}");
+    private static final String PATH = "PATH";
+    private static final String PATH_EXTENSIONS = "PATHEXT";
+    private static final Map<List<String>, String> RESOLVED_EXECUTABLES =
+            new ConcurrentHashMap<>();
+
+    private final CommandRunner commandRunner;
+    private final File directory;
+    private final String[] command;
+    private final String[] placeholders;
+    private final boolean parameterized;
+
+    @Override
+    public CommandResult run(final String... outputLines) {
+        return run(Collections.emptyMap(), outputLines);
+    }
+
+    @Override
+    public CommandResult run(final Map<String, String> arguments, final String... outputLines) {
+        return commandRunner.run(directory, toList(outputLines), resolveCommand(arguments));
+    }
+
+    private String[] resolveCommand(final Map<String, String> arguments) {
+        return parameterized ? substitute(command, placeholders, arguments) : command.clone();
+    }
+
+    static String[] placeholders(final String[] template, final int from) {
+        final String[] placeholders = new String[template.length];
+
+        for (int i = from; i < template.length; i++) {
+            final Matcher matcher = PLACEHOLDER.matcher(template[i]);
+
+            if (matcher.matches()) {
+                placeholders[i] = matcher.group(1);
+            }
+        }
+
+        return placeholders;
+    }
+
+    static String[] substitute(final String[] template,
+                               final String[] placeholders,
+                               final Map<String, String> arguments) {
+        final String[] resolved = template.clone();
+
+        for (int i = 0; i < placeholders.length; i++) {
+            if (placeholders[i] != null) {
+                resolved[i] = Optional.ofNullable(arguments.get(placeholders[i]))
+                        .orElseThrow(missingArgument(placeholders[i]));
+            }
+        }
+
+        return resolved;
+    }
+
+    private static Supplier<IllegalArgumentException> missingArgument(
+            final String placeholder) {
+        return () -> new IllegalArgumentException("Missing command argument: " + placeholder);
+    }
+
+    private static List<String> toList(final String[] outputLines) {
+        return outputLines == null || outputLines.length == 0
+                ? null
+                : Arrays.asList(outputLines);
+    }
+
+    public static PreparedCommandRunner prepare(final String... command) {
+        return prepare(new DefaultCommandRunner(), null, command);
+    }
+
+    public static PreparedCommandRunner prepare(final File directory, final String... command) {
+        return prepare(new DefaultCommandRunner(), directory, command);
+    }
+
+    public static PreparedCommandRunner prepare(final CommandRunner commandRunner,
+                                                final File directory,
+                                                final String... command) {
+        if (command == null || command.length == 0) {
+            throw new IllegalArgumentException("A command template requires an executable.");
+        }
+
+        if (directory != null && !directory.isDirectory()) {
+            throw new IllegalArgumentException("Not a directory: " + directory);
+        }
+
+        final String[] template = command.clone();
+        final String[] placeholders = placeholders(template, 1);
+
+        template[0] = resolveExecutable(template[0], commandRunner instanceof DefaultCommandRunner
+                ? ((DefaultCommandRunner) commandRunner).getEnvironment()
+                : CommandEnvironment.inherit());
+
+        return new DefaultPreparedCommandRunner(commandRunner, directory, template,
+                placeholders, Arrays.stream(placeholders).anyMatch(Objects::nonNull));
+    }
+
+    static String resolveExecutable(final String executable,
+                                    final CommandEnvironment environment) {
+        if (executable.contains(File.separator) || executable.contains("/")) {
+            return executable;
+        }
+
+        final String path = environment.get(PATH);
+        final String pathExtensions = environment.get(PATH_EXTENSIONS);
+
+        return RESOLVED_EXECUTABLES.computeIfAbsent(Arrays.asList(executable, path,
+                pathExtensions), key -> searchPath(executable, path, pathExtensions));
+    }
+
+    private static String searchPath(final String executable,
+                                     final String path,
+                                     final String pathExtensions) {
+        final List<String> extensions = new ArrayList<>(List.of(""));
+
+        Optional.ofNullable(pathExtensions)
+                .map(value -> value.split(File.pathSeparator))
+                .map(Arrays::asList)
+                .ifPresent(extensions::addAll);
+
+        return Optional.ofNullable(path)
+                .map(value -> value.split(File.pathSeparator))
+                .stream()
+                .flatMap(Arrays::stream)
+                .flatMap(directory -> extensions.stream()
+                        .map(extension -> new File(directory, executable + extension)))
+                .filter(file -> file.isFile() && file.canExecute())
+                .map(File::getAbsolutePath)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Executable not found on PATH: " + executable));
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.stream.Stream;
+
+abstract class ForwardingCommandResult implements CommandResult {
+
+    abstract CommandResult delegate();
+
+    @Override
+    public int getResultCode() {
+        return delegate().getResultCode();
+    }
+
+    @Override
+    public String getResultMessage() {
+        return delegate().getResultMessage();
+    }
+
+    @Override
+    public List<String> getResultLines() {
+        return delegate().getResultLines();
+    }
+
+    @Override
+    public String getAdditionalMessage() {
+        return delegate().getAdditionalMessage();
+    }
+
+    @Override
+    public void appendAdditionalMessage(final String message) {
+        delegate().appendAdditionalMessage(message);
+    }
+
+    @Override
+    public Stream<String> stream() {
+        return delegate().stream();
+    }
+
+    @Override
+    public List<String> getOutputLines() {
+        return delegate().getOutputLines();
+    }
+
+    @Override
+    public List<String> getErrorLines() {
+        return delegate().getErrorLines();
+    }
+
+    @Override
+    public List<TimelineEntry> getTimeline() {
+        return delegate().getTimeline();
+    }
+
+    @Override
+    public CharSequence getResultCharSequence() {
+        return delegate().getResultCharSequence();
+    }
+
+    @Override
+    public Reader getResultReader() {
+        return delegate().getResultReader();
+    }
+
+    @Override
+    public long getDroppedLines() {
+        return delegate().getDroppedLines();
+    }
+
+    @Override
+    public long getDroppedBytes() {
+        return delegate().getDroppedBytes();
+    }
+
+    @Override
+    public boolean isTruncated() {
+        return delegate().isTruncated();
+    }
+
+    @Override
+    public Termination getTermination() {
+        return delegate().getTermination();
+    }
+
+    @Override
+    public boolean isTimedOut() {
+        return delegate().isTimedOut();
+    }
+}
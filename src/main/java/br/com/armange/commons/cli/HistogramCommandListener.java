@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+@Getter
+public final class HistogramCommandListener implements CommandListener {
+
+    private final LatencyHistogram spawnLatency = new LatencyHistogram();
+    private final LatencyHistogram timeToFirstOutput = new LatencyHistogram();
+    private final LatencyHistogram runTime = new LatencyHistogram();
+    private final LatencyHistogram drainTime = new LatencyHistogram();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    @Getter(AccessLevel.NONE)
+    private final LongAdder timedOut = new LongAdder();
+
+    @Getter(AccessLevel.NONE)
+    private final LongAdder killed = new LongAdder();
+
+    @Getter(AccessLevel.NONE)
+    private final LongAdder bytesRead = new LongAdder();
+
+    @Getter(AccessLevel.NONE)
+    private final LongAdder bytesWritten = new LongAdder();
+
+    @Override
+    public void onStarted(final CommandTrace trace) {
+        spawnLatency.record(trace.getSpawnLatency());
+    }
+
+    @Override
+    public void onFirstOutput(final CommandTrace trace) {
+        timeToFirstOutput.record(trace.getTimeToFirstOutput());
+    }
+
+    @Override
+    public void onTimedOut(final CommandTrace trace) {
+        timedOut.increment();
+    }
+
+    @Override
+    public void onKilled(final CommandTrace trace) {
+        killed.increment();
+    }
+
+    @Override
+    public void onExited(final CommandTrace trace) {
+        runTime.record(trace.getRunTime());
+        drainTime.record(trace.getDrainTime());
+        latency.record(trace.getLatency());
+        bytesRead.add(trace.getBytesRead());
+        bytesWritten.add(trace.getBytesWritten());
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    public long getKilledCount() {
+        return killed.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import java.nio.CharBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+final class LineBuffer extends AbstractList<String> implements RandomAccess {
+
+    private static final char NEW_LINE = '\n';
+
+    private final String text;
+    private final int[] ends;
+    private final boolean blank;
+
+    private LineBuffer(final String text, final int[] ends) {
+        this.text = text;
+        this.ends = ends;
+        this.blank = text.isBlank();
+    }
+
+    @Override
+    public String get(final int index) {
+        return text.substring(startOf(index), ends[index]);
+    }
+
+    @Override
+    public int size() {
+        return ends.length;
+    }
+
+    CharSequence text() {
+        return CharBuffer.wrap(text);
+    }
+
+    String textString() {
+        return text;
+    }
+
+    boolean isBlank() {
+        return blank;
+    }
+
+    private int startOf(final int index) {
+        if (index < 0 || index >= ends.length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        return index == 0 ? 0 : ends[index - 1] + 1;
+    }
+
+    static LineBuffer of(final List<String> lines) {
+        if (lines instanceof LineBuffer) {
+            return (LineBuffer) lines;
+        }
+
+        final int[] ends = new int[lines.size()];
+        int length = 0;
+
+        for (final String line : lines) {
+            length += line.length() + 1;
+        }
+
+        final StringBuilder text = new StringBuilder(length);
+        int index = 0;
+
+        for (final String line : lines) {
+            text.append(line);
+            ends[index++] = text.length();
+            text.append(NEW_LINE);
+        }
+
+        return new LineBuffer(text.toString(), Arrays.copyOf(ends, index));
+    }
+}
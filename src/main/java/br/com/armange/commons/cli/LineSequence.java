@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import java.nio.charset.StandardCharsets;
+
+final class LineSequence implements CharSequence {
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private byte[] bytes;
+    private int start;
+    private int length;
+    private boolean ascii;
+    private char[] chars = new char[0];
+    private int[] byteOffsets = new int[1];
+
+    LineSequence reset(final byte[] bytes, final int start, final int end) {
+        this.bytes = bytes;
+        this.start = start;
+        this.ascii = true;
+
+        for (int i = start; i < end && ascii; i++) {
+            ascii = bytes[i] >= 0;
+        }
+
+        this.length = ascii ? end - start : decode(end);
+
+        return this;
+    }
+
+    int byteOffset(final int charIndex) {
+        return ascii ? start + charIndex : byteOffsets[charIndex];
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index out of range: " + index);
+        }
+
+        return ascii ? (char) bytes[start + index] : chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(final int startIndex, final int endIndex) {
+        return toString().subSequence(startIndex, endIndex);
+    }
+
+    @Override
+    public String toString() {
+        return ascii
+                ? new String(bytes, start, length, StandardCharsets.ISO_8859_1)
+                : new String(chars, 0, length);
+    }
+
+    private int decode(final int end) {
+        final int capacity = end - start;
+
+        if (chars.length < capacity) {
+            chars = new char[capacity];
+            byteOffsets = new int[capacity + 1];
+        }
+
+        int count = 0;
+        int i = start;
+
+        while (i < end) {
+            final int lead = bytes[i] & 0xFF;
+            final int size = lead < 0x80 ? 1 : lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : 2;
+            int codePoint = size == 1 ? lead : lead & (0x3F >> (size - 1));
+            boolean valid = lead < 0x80 || lead >= 0xC2 && lead < 0xF5 && i + size <= end;
+
+            for (int j = 1; valid && j < size; j++) {
+                valid = (bytes[i + j] & 0xC0) == 0x80;
+                codePoint = codePoint << 6 | bytes[i + j] & 0x3F;
+            }
+
+            if (!valid) {
+                byteOffsets[count] = i;
+                chars[count++] = REPLACEMENT;
+                i++;
+            } else if (Character.isSupplementaryCodePoint(codePoint)) {
+                byteOffsets[count] = i;
+                chars[count++] = Character.highSurrogate(codePoint);
+                byteOffsets[count] = i;
+                chars[count++] = Character.lowSurrogate(codePoint);
+                i += size;
+            } else {
+                byteOffsets[count] = i;
+                chars[count++] = (char) codePoint;
+                i += size;
+            }
+        }
+
+        byteOffsets[count] = end;
+
+        return count;
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class OutputCapture {
+
+    private final int headLimit;
+    private final long maxBytes;
+    private final List<String> head = new ArrayList<>();
+    private final int tailLimit;
+    private final boolean timed;
+    private String[] tail;
+    private long[] tailNanos;
+    private long[] headNanos;
+    private int tailStart;
+    private int tailSize;
+    private boolean headClosed;
+    private long headBytes;
+    private long tailBytes;
+
+    @Getter
+    private long droppedLines;
+
+    @Getter
+    private long droppedBytes;
+
+    OutputCapture(final int headLimit, final int tailLimit, final long maxBytes) {
+        this(headLimit, tailLimit, maxBytes, false);
+    }
+
+    OutputCapture(final int headLimit,
+                  final int tailLimit,
+                  final long maxBytes,
+                  final boolean timed) {
+        this.headLimit = headLimit;
+        this.maxBytes = maxBytes;
+        this.tailLimit = tailLimit;
+        this.timed = timed;
+        this.tail = new String[0];
+        this.tailNanos = new long[0];
+        this.headNanos = new long[0];
+    }
+
+    void accept(final String line) {
+        accept(line, sizeOf(line));
+    }
+
+    synchronized void accept(final String line, final long bytes) {
+        final long nanos = timed ? System.nanoTime() : 0;
+
+        if (!headClosed && head.size() < headLimit && headBytes + bytes <= maxBytes) {
+            if (timed) {
+                if (head.size() == headNanos.length) {
+                    headNanos = Arrays.copyOf(headNanos, Math.max(16, headNanos.length * 2));
+                }
+
+                headNanos[head.size()] = nanos;
+            }
+
+            head.add(line);
+            headBytes += bytes;
+
+            return;
+        }
+
+        headClosed = true;
+
+        if (tailLimit == 0 || headBytes + bytes > maxBytes) {
+            drop(bytes);
+
+            return;
+        }
+
+        while (tailSize == tailLimit || headBytes + tailBytes + bytes > maxBytes) {
+            dropOldestTailLine();
+        }
+
+        if (tailSize == tail.length) {
+            growTail();
+        }
+
+        final int index = (tailStart + tailSize) % tail.length;
+
+        tail[index] = line;
+
+        if (timed) {
+            tailNanos[index] = nanos;
+        }
+
+        tailSize++;
+        tailBytes += bytes;
+    }
+
+    synchronized List<String> lines() {
+        final List<String> lines = new ArrayList<>(head.size() + tailSize);
+
+        lines.addAll(head);
+
+        for (int i = 0; i < tailSize; i++) {
+            lines.add(tail[(tailStart + i) % tail.length]);
+        }
+
+        return lines;
+    }
+
+    synchronized long[] timestamps() {
+        if (!timed) {
+            return new long[0];
+        }
+
+        final long[] timestamps = Arrays.copyOf(headNanos, head.size() + tailSize);
+
+        for (int i = 0; i < tailSize; i++) {
+            timestamps[head.size() + i] = tailNanos[(tailStart + i) % tail.length];
+        }
+
+        return timestamps;
+    }
+
+    private void growTail() {
+        final int capacity = (int) Math.min(tailLimit, Math.max(16L, tail.length * 2L));
+        final String[] grownTail = new String[capacity];
+        final long[] grownNanos = new long[timed ? capacity : 0];
+
+        for (int i = 0; i < tailSize; i++) {
+            final int index = (tailStart + i) % tail.length;
+
+            grownTail[i] = tail[index];
+
+            if (timed) {
+                grownNanos[i] = tailNanos[index];
+            }
+        }
+
+        tail = grownTail;
+        tailNanos = grownNanos;
+        tailStart = 0;
+    }
+
+    private void dropOldestTailLine() {
+        final long bytes = sizeOf(tail[tailStart]);
+
+        tail[tailStart] = null;
+        tailStart = (tailStart + 1) % tail.length;
+        tailSize--;
+        tailBytes -= bytes;
+        drop(bytes);
+    }
+
+    private void drop(final long bytes) {
+        droppedLines++;
+        droppedBytes += bytes;
+    }
+
+    static long sizeOf(final String line) {
+        long bytes = 1;
+
+        for (int i = 0; i < line.length(); i++) {
+            final char character = line.charAt(i);
+
+            if (character < 0x80) {
+                bytes++;
+            } else if (character < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(character)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+
+        return bytes;
+    }
+}
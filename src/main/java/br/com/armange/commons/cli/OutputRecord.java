@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class OutputRecord {
+
+    static final byte PLAIN = 0;
+    static final byte JSON_ESCAPED = 1;
+    static final byte CSV_QUOTED = 2;
+
+    private static final int INITIAL_FIELDS = 16;
+
+    private final LineSequence lineSequence = new LineSequence();
+    private byte[] bytes;
+    private int lineStart;
+    private int lineEnd;
+    private int[] starts = new int[INITIAL_FIELDS];
+    private int[] ends = new int[INITIAL_FIELDS];
+    private byte[] encodings = new byte[INITIAL_FIELDS];
+    private int fieldCount;
+    private Matcher matcher;
+
+    @Getter
+    private long lineNumber;
+
+    OutputRecord() {
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public boolean isPresent(final int index) {
+        return starts[check(index)] >= 0;
+    }
+
+    public String getString(final int index) {
+        if (!isPresent(index)) {
+            return null;
+        }
+
+        final String value = new String(bytes, starts[index], ends[index] - starts[index],
+                StandardCharsets.UTF_8);
+
+        switch (encodings[index]) {
+            case JSON_ESCAPED:
+                return unescapeJson(value);
+            case CSV_QUOTED:
+                return value.replace("\"\"", "\"");
+            default:
+                return value;
+        }
+    }
+
+    public long getLong(final int index) {
+        if (!isPresent(index) || encodings[index] != PLAIN || starts[index] == ends[index]) {
+            throw new NumberFormatException("Not a number: " + getString(index));
+        }
+
+        final int end = ends[index];
+        final boolean negative = bytes[starts[index]] == '-';
+        int i = negative || bytes[starts[index]] == '+' ? starts[index] + 1 : starts[index];
+        long value = 0;
+
+        if (i == end) {
+            throw new NumberFormatException("Not a number: " + getString(index));
+        }
+
+        try {
+            for (; i < end; i++) {
+                final int digit = bytes[i] - '0';
+
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException("Not a number: " + getString(index));
+                }
+
+                value = Math.subtractExact(Math.multiplyExact(value, 10), digit);
+            }
+
+            return negative ? value : Math.negateExact(value);
+        } catch (final ArithmeticException e) {
+            throw new NumberFormatException("Number out of range: " + getString(index));
+        }
+    }
+
+    public int getInt(final int index) {
+        final long value = getLong(index);
+
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Number out of range: " + value);
+        }
+
+        return (int) value;
+    }
+
+    public double getDouble(final int index) {
+        final String value = getString(index);
+
+        if (value == null) {
+            throw new NumberFormatException("Not a number: null");
+        }
+
+        return Double.parseDouble(value);
+    }
+
+    public String getLine() {
+        return new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+    }
+
+    OutputRecord reset(final byte[] bytes, final int start, final int end) {
+        this.bytes = bytes;
+        this.lineStart = start;
+        this.lineEnd = end;
+        this.fieldCount = 0;
+        this.lineNumber++;
+
+        return this;
+    }
+
+    void addField(final int start, final int end) {
+        addField(start, end, PLAIN);
+    }
+
+    void addField(final int start, final int end, final byte encoding) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+            encodings = Arrays.copyOf(encodings, fieldCount * 2);
+        }
+
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        encodings[fieldCount++] = encoding;
+    }
+
+    void fill(final int count) {
+        while (fieldCount < count) {
+            addField(-1, -1);
+        }
+    }
+
+    void setField(final int index, final int start, final int end, final byte encoding) {
+        starts[index] = start;
+        ends[index] = end;
+        encodings[index] = encoding;
+    }
+
+    Matcher matcher(final Pattern pattern) {
+        final LineSequence sequence = lineSequence.reset(bytes, lineStart, lineEnd);
+
+        if (matcher == null || matcher.pattern() != pattern) {
+            matcher = pattern.matcher(sequence);
+        } else {
+            matcher.reset(sequence);
+        }
+
+        return matcher;
+    }
+
+    int byteOffset(final int charIndex) {
+        return lineSequence.byteOffset(charIndex);
+    }
+
+    private int check(final int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field index out of range: " + index);
+        }
+
+        return index;
+    }
+
+    private static String unescapeJson(final String value) {
+        final StringBuilder builder = new StringBuilder(value.length());
+
+        for (int i = 0; i < value.length(); i++) {
+            final char character = value.charAt(i);
+
+            if (character != '\\' || i + 1 == value.length()) {
+                builder.append(character);
+
+                continue;
+            }
+
+            final char escaped = value.charAt(++i);
+
+            switch (escaped) {
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    builder.append((char) Integer.parseInt(value.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default:
+                    builder.append(escaped);
+            }
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+final class PipelineExecution {
+
+    private final List<Process> processes;
+    private final OutputCapture inputs;
+    private final OutputCapture errors;
+    private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+    private final Executor executor;
+    private final CommandTrace trace;
+    private final long startNanos = System.nanoTime();
+    private final CompletableFuture<Void> pumpers;
+    private volatile long lastOutputNanos = startNanos;
+
+    PipelineExecution(final List<Process> processes,
+                      final CapturePolicy capturePolicy,
+                      final Executor executor,
+                      final CommandTrace trace) {
+        final Process lastProcess = processes.get(processes.size() - 1);
+        final List<CompletableFuture<Void>> streamPumpers = new ArrayList<>();
+
+        this.processes = processes;
+        this.inputs = capturePolicy.newOutputCapture();
+        this.errors = capturePolicy.newOutputCapture();
+        this.executor = executor;
+        this.trace = trace;
+
+        streamPumpers.add(StreamPumper.pump(lastProcess.getInputStream(), this::acceptOutput,
+                failures::add, executor));
+        processes.forEach(process -> streamPumpers.add(StreamPumper.pump(
+                process.getErrorStream(), this::acceptError, failures::add, executor)));
+
+        this.pumpers = CompletableFuture.allOf(streamPumpers.toArray(CompletableFuture[]::new));
+    }
+
+    PipelineExecution feed(final StdinSource stdinSource, final FlushPolicy flushPolicy) {
+        stdinSource.feed(processes.get(0), flushPolicy, failures::add,
+                written -> trace.stdinCompleted(written.getBytes(), written.getLines()), executor);
+
+        return this;
+    }
+
+    PipelineCommandResult await(final Timeouts timeouts) throws InterruptedException {
+        final long deadline = System.nanoTime() + timeouts.getTimeoutNanos();
+        final CompletableFuture<Void> finished = CompletableFuture.allOf(Stream.concat(
+                        processes.stream().map(Process::onExit), Stream.of(pumpers))
+                .toArray(CompletableFuture[]::new));
+        final Termination termination = watch(finished, deadline, timeouts);
+        final boolean timedOut = termination != Termination.EXITED;
+
+        if (timedOut) {
+            trace.timedOut(termination);
+            ProcessTree.terminate(processes, pumpers, timeouts.getGracePeriodNanos());
+        }
+
+        final List<Integer> stageResultCodes = processes.stream()
+                .map(Process::exitValue)
+                .collect(Collectors.toUnmodifiableList());
+        final DefaultCommandResult commandResult = DefaultCommandResult
+                .newDefaultCommandResult(pipefail(stageResultCodes), inputs, errors, startNanos,
+                        termination);
+
+        failures.forEach(commandResult::appendAdditionalMessage);
+
+        if (timedOut) {
+            commandResult.appendAdditionalMessage(CommandExecution.ERROR_MESSAGE);
+        }
+
+        trace.completed(commandResult.getResultCode(), pumpers.isDone());
+
+        return new PipelineCommandResult(commandResult, stageResultCodes);
+    }
+
+    private Termination watch(final CompletableFuture<Void> finished,
+                              final long deadline,
+                              final Timeouts timeouts) throws InterruptedException {
+        while (!finished.isDone()) {
+            final long now = System.nanoTime();
+            long delay = deadline - now;
+
+            if (delay <= 0) {
+                return Termination.TIMED_OUT;
+            }
+
+            if (timeouts.hasIdleTimeout() && processes.stream().anyMatch(Process::isAlive)) {
+                final long idleDelay = lastOutputNanos + timeouts.getIdleTimeoutNanos() - now;
+
+                if (idleDelay <= 0) {
+                    return Termination.IDLE_TIMED_OUT;
+                }
+
+                delay = Math.min(delay, idleDelay);
+            }
+
+            ProcessTree.await(finished, delay);
+        }
+
+        return Termination.EXITED;
+    }
+
+    private void acceptOutput(final String line) {
+        final long bytes = OutputCapture.sizeOf(line);
+
+        lastOutputNanos = System.nanoTime();
+        trace.outputRead(bytes);
+        inputs.accept(line, bytes);
+    }
+
+    private synchronized void acceptError(final String line) {
+        final long bytes = OutputCapture.sizeOf(line);
+
+        lastOutputNanos = System.nanoTime();
+        trace.outputRead(bytes);
+        errors.accept(line, bytes);
+    }
+
+    private static int pipefail(final List<Integer> stageResultCodes) {
+        for (int i = stageResultCodes.size() - 1; i >= 0; i--) {
+            if (stageResultCodes.get(i) != 0) {
+                return stageResultCodes.get(i);
+            }
+        }
+
+        return 0;
+    }
+}
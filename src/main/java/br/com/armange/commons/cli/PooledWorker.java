@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+@Slf4j
+final class PooledWorker {
+
+    private final Process process;
+    private final InputStream inputStream;
+    private final OutputStream outputStream;
+    private final WorkerFraming framing;
+    private final String delimiter;
+
+    @Getter
+    private int requestCount;
+
+    @Getter
+    private volatile long lastUsedNanos = System.nanoTime();
+
+    PooledWorker(final Process process,
+                 final WorkerFraming framing,
+                 final String delimiter,
+                 final Executor executor) {
+        this.process = process;
+        this.inputStream = new BufferedInputStream(process.getInputStream());
+        this.outputStream = new BufferedOutputStream(process.getOutputStream());
+        this.framing = framing;
+        this.delimiter = delimiter;
+
+        StreamPumper.pump(process.getErrorStream(), line -> log.debug("worker: {}", line),
+                log::warn, executor);
+    }
+
+    List<String> exchange(final List<String> lines) throws IOException {
+        requestCount++;
+
+        try {
+            return probe(lines);
+        } finally {
+            lastUsedNanos = System.nanoTime();
+        }
+    }
+
+    List<String> probe(final List<String> lines) throws IOException {
+        framing.writeRequest(outputStream, lines, delimiter);
+        outputStream.flush();
+
+        return framing.readResponse(inputStream, delimiter);
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    int exitValue() {
+        return process.isAlive() ? 1 : process.exitValue();
+    }
+
+    void destroy() {
+        process.destroy();
+    }
+}
@@ -18,7 +18,21 @@
 
 package br.com.armange.commons.cli;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
 public interface PreparedCommandRunner {
 
     CommandResult run(final String... outputLines);
+
+    default CommandResult run(final Map<String, String> arguments, final String... outputLines) {
+        if (outputLines == null) {
+            return run();
+        }
+
+        return run(DefaultPreparedCommandRunner.substitute(outputLines,
+                DefaultPreparedCommandRunner.placeholders(outputLines, 0),
+                Optional.ofNullable(arguments).orElseGet(Collections::emptyMap)));
+    }
 }
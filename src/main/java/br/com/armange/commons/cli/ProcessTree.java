@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+final class ProcessTree {
+
+    private final Process process;
+    private final List<ProcessHandle> handles;
+
+    private ProcessTree(final Process process) {
+        this.process = process;
+        this.handles = Stream.concat(Stream.of(process.toHandle()), process.descendants())
+                .collect(Collectors.toList());
+    }
+
+    void terminate() {
+        handles.forEach(ProcessHandle::destroy);
+    }
+
+    boolean isAlive() {
+        return handles.stream().anyMatch(ProcessHandle::isAlive);
+    }
+
+    void kill() {
+        handles.forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    CompletableFuture<Void> onExit() {
+        return CompletableFuture.allOf(handles.stream()
+                .map(ProcessHandle::onExit)
+                .toArray(CompletableFuture[]::new));
+    }
+
+    static ProcessTree of(final Process process) {
+        return new ProcessTree(process);
+    }
+
+    static boolean terminate(final List<Process> processes,
+                             final CompletableFuture<?> drained,
+                             final long gracePeriodNanos) throws InterruptedException {
+        final long graceDeadline = System.nanoTime() + gracePeriodNanos;
+        final List<ProcessTree> trees = processes.stream()
+                .map(ProcessTree::of)
+                .collect(Collectors.toList());
+
+        trees.forEach(ProcessTree::terminate);
+
+        final CompletableFuture<Void> exited = CompletableFuture.allOf(trees.stream()
+                .map(ProcessTree::onExit)
+                .toArray(CompletableFuture[]::new));
+
+        if (await(CompletableFuture.allOf(exited, drained), gracePeriodNanos)) {
+            return true;
+        }
+
+        trees.forEach(ProcessTree::kill);
+
+        for (final Process process : processes) {
+            process.waitFor();
+        }
+
+        return await(drained, graceDeadline - System.nanoTime());
+    }
+
+    static boolean await(final CompletableFuture<?> future,
+                         final long timeoutNanos) throws InterruptedException {
+        try {
+            future.get(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS);
+
+            return true;
+        } catch (final ExecutionException e) {
+            return true;
+        } catch (final TimeoutException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+final class RecordChannel implements WritableByteChannel {
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private final RecordParser parser;
+    private final Consumer<OutputRecord> consumer;
+    private final OutputRecord record = new OutputRecord();
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int size;
+    private boolean open = true;
+
+    RecordChannel(final RecordParser parser, final Consumer<OutputRecord> consumer) {
+        this.parser = parser;
+        this.consumer = consumer;
+    }
+
+    @Override
+    public int write(final ByteBuffer source) throws IOException {
+        final int length = source.remaining();
+
+        if (size + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+        }
+
+        source.get(buffer, size, length);
+
+        int lineStart = 0;
+
+        for (int i = size; i < size + length; i++) {
+            if (buffer[i] == '\n') {
+                emit(lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+
+        size += length - lineStart;
+        System.arraycopy(buffer, lineStart, buffer, 0, size);
+
+        return length;
+    }
+
+    void finish() throws IOException {
+        if (size > 0) {
+            emit(0, size);
+            size = 0;
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    private void emit(final int start, final int end) throws IOException {
+        final int lineEnd = end > start && buffer[end - 1] == '\r' ? end - 1 : end;
+
+        try {
+            parser.parse(record.reset(buffer, start, lineEnd), buffer, start, lineEnd);
+            consumer.accept(record);
+        } catch (final RuntimeException e) {
+            throw new IOException("Could not parse line " + record.getLineNumber() + ": "
+                    + e.getMessage(), e);
+        }
+    }
+}
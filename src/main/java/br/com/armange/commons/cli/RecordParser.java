@@ -0,0 +1,400 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public abstract class RecordParser {
+
+    abstract void parse(OutputRecord record, byte[] bytes, int start, int end);
+
+    public static RecordParser delimited(final char delimiter) {
+        if (delimiter >= 0x80) {
+            throw new IllegalArgumentException("The delimiter must be an ASCII character.");
+        }
+
+        return new DelimitedParser((byte) delimiter, false);
+    }
+
+    public static RecordParser csv() {
+        return new DelimitedParser((byte) ',', true);
+    }
+
+    public static RecordParser whitespace() {
+        return whitespace(Integer.MAX_VALUE);
+    }
+
+    public static RecordParser whitespace(final int maxFields) {
+        if (maxFields < 1) {
+            throw new IllegalArgumentException("Max fields must be positive: " + maxFields);
+        }
+
+        return new WhitespaceParser(maxFields);
+    }
+
+    public static RecordParser fixedWidth(final int... widths) {
+        if (widths.length == 0 || Arrays.stream(widths).anyMatch(width -> width < 1)) {
+            throw new IllegalArgumentException("Fixed widths must be positive.");
+        }
+
+        return new FixedWidthParser(widths.clone());
+    }
+
+    public static RecordParser regex(final Pattern pattern) {
+        return new RegexParser(pattern);
+    }
+
+    public static RecordParser jsonLines(final String... fields) {
+        if (fields.length == 0) {
+            throw new IllegalArgumentException("A JSON lines parser requires at least one field.");
+        }
+
+        return new JsonLinesParser(Arrays.stream(fields)
+                .map(field -> field.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new));
+    }
+
+    private static boolean isWhitespace(final byte value) {
+        return value == ' ' || value == '\t';
+    }
+
+    private static final class DelimitedParser extends RecordParser {
+
+        private final byte delimiter;
+        private final boolean quoted;
+
+        private DelimitedParser(final byte delimiter, final boolean quoted) {
+            this.delimiter = delimiter;
+            this.quoted = quoted;
+        }
+
+        @Override
+        void parse(final OutputRecord record, final byte[] bytes, final int start, final int end) {
+            int fieldStart = start;
+
+            while (true) {
+                if (quoted && fieldStart < end && bytes[fieldStart] == '"') {
+                    fieldStart = parseQuoted(record, bytes, fieldStart, end);
+                } else {
+                    int i = fieldStart;
+
+                    while (i < end && bytes[i] != delimiter) {
+                        i++;
+                    }
+
+                    record.addField(fieldStart, i);
+                    fieldStart = i;
+                }
+
+                if (fieldStart >= end) {
+                    return;
+                }
+
+                fieldStart++;
+
+                if (fieldStart == end) {
+                    record.addField(end, end);
+
+                    return;
+                }
+            }
+        }
+
+        private int parseQuoted(final OutputRecord record,
+                                final byte[] bytes,
+                                final int quote,
+                                final int end) {
+            int i = quote + 1;
+
+            while (i < end && (bytes[i] != '"' || i + 1 < end && bytes[i + 1] == '"')) {
+                i += bytes[i] == '"' ? 2 : 1;
+            }
+
+            if (i >= end) {
+                throw new IllegalArgumentException("Unterminated quoted field.");
+            }
+
+            record.addField(quote + 1, i, OutputRecord.CSV_QUOTED);
+
+            return i + 1;
+        }
+    }
+
+    private static final class WhitespaceParser extends RecordParser {
+
+        private final int maxFields;
+
+        private WhitespaceParser(final int maxFields) {
+            this.maxFields = maxFields;
+        }
+
+        @Override
+        void parse(final OutputRecord record, final byte[] bytes, final int start, final int end) {
+            int lineEnd = end;
+
+            while (lineEnd > start && isWhitespace(bytes[lineEnd - 1])) {
+                lineEnd--;
+            }
+
+            int i = start;
+
+            while (true) {
+                while (i < lineEnd && isWhitespace(bytes[i])) {
+                    i++;
+                }
+
+                if (i == lineEnd) {
+                    return;
+                }
+
+                if (record.getFieldCount() == maxFields - 1) {
+                    record.addField(i, lineEnd);
+
+                    return;
+                }
+
+                final int fieldStart = i;
+
+                while (i < lineEnd && !isWhitespace(bytes[i])) {
+                    i++;
+                }
+
+                record.addField(fieldStart, i);
+            }
+        }
+    }
+
+    private static final class FixedWidthParser extends RecordParser {
+
+        private final int[] widths;
+
+        private FixedWidthParser(final int[] widths) {
+            this.widths = widths;
+        }
+
+        @Override
+        void parse(final OutputRecord record, final byte[] bytes, final int start, final int end) {
+            int column = start;
+
+            for (final int width : widths) {
+                int fieldStart = Math.min(column, end);
+                int fieldEnd = Math.min(column + width, end);
+
+                while (fieldStart < fieldEnd && isWhitespace(bytes[fieldStart])) {
+                    fieldStart++;
+                }
+
+                while (fieldEnd > fieldStart && isWhitespace(bytes[fieldEnd - 1])) {
+                    fieldEnd--;
+                }
+
+                record.addField(fieldStart, fieldEnd);
+                column += width;
+            }
+        }
+    }
+
+    private static final class RegexParser extends RecordParser {
+
+        private final Pattern pattern;
+
+        private RegexParser(final Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        void parse(final OutputRecord record, final byte[] bytes, final int start, final int end) {
+            final Matcher matcher = record.matcher(pattern);
+
+            if (!matcher.matches()) {
+                return;
+            }
+
+            for (int group = 1; group <= matcher.groupCount(); group++) {
+                if (matcher.start(group) < 0) {
+                    record.addField(-1, -1);
+                } else {
+                    record.addField(record.byteOffset(matcher.start(group)),
+                            record.byteOffset(matcher.end(group)));
+                }
+            }
+        }
+    }
+
+    private static final class JsonLinesParser extends RecordParser {
+
+        private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+        private final byte[][] fields;
+
+        private JsonLinesParser(final byte[][] fields) {
+            this.fields = fields;
+        }
+
+        @Override
+        void parse(final OutputRecord record, final byte[] bytes, final int start, final int end) {
+            int i = skipWhitespace(bytes, start, end);
+
+            if (i == end) {
+                return;
+            }
+
+            expect(bytes, i, end, '{');
+            record.fill(fields.length);
+            i = skipWhitespace(bytes, i + 1, end);
+
+            if (i < end && bytes[i] == '}') {
+                return;
+            }
+
+            while (true) {
+                expect(bytes, i, end, '"');
+
+                final int keyEnd = skipString(bytes, i, end);
+                final int field = indexOf(bytes, i + 1, keyEnd);
+
+                i = skipWhitespace(bytes, keyEnd + 1, end);
+                expect(bytes, i, end, ':');
+                i = skipWhitespace(bytes, i + 1, end);
+
+                if (i == end) {
+                    throw malformed();
+                }
+
+                final int valueEnd;
+
+                if (bytes[i] == '"') {
+                    valueEnd = skipString(bytes, i, end);
+                    setField(record, field, bytes, i + 1, valueEnd, true);
+                    i = valueEnd + 1;
+                } else {
+                    valueEnd = bytes[i] == '{' || bytes[i] == '['
+                            ? skipNested(bytes, i, end)
+                            : skipScalar(bytes, i, end);
+                    setField(record, field, bytes, i, valueEnd, false);
+                    i = valueEnd;
+                }
+
+                i = skipWhitespace(bytes, i, end);
+
+                if (i < end && bytes[i] == ',') {
+                    i = skipWhitespace(bytes, i + 1, end);
+                } else {
+                    expect(bytes, i, end, '}');
+
+                    return;
+                }
+            }
+        }
+
+        private int indexOf(final byte[] bytes, final int start, final int end) {
+            for (int field = 0; field < fields.length; field++) {
+                if (Arrays.equals(fields[field], 0, fields[field].length, bytes, start, end)) {
+                    return field;
+                }
+            }
+
+            return -1;
+        }
+
+        private static void setField(final OutputRecord record,
+                                     final int field,
+                                     final byte[] bytes,
+                                     final int start,
+                                     final int end,
+                                     final boolean string) {
+            if (field < 0 || !string && Arrays.equals(NULL, 0, NULL.length, bytes, start, end)) {
+                return;
+            }
+
+            boolean escaped = false;
+
+            for (int i = start; string && i < end && !escaped; i++) {
+                escaped = bytes[i] == '\\';
+            }
+
+            record.setField(field, start, end, escaped ? OutputRecord.JSON_ESCAPED
+                    : OutputRecord.PLAIN);
+        }
+
+        private static int skipString(final byte[] bytes, final int quote, final int end) {
+            for (int i = quote + 1; i < end; i++) {
+                if (bytes[i] == '\\') {
+                    i++;
+                } else if (bytes[i] == '"') {
+                    return i;
+                }
+            }
+
+            throw malformed();
+        }
+
+        private static int skipNested(final byte[] bytes, final int start, final int end) {
+            int depth = 0;
+
+            for (int i = start; i < end; i++) {
+                if (bytes[i] == '"') {
+                    i = skipString(bytes, i, end);
+                } else if (bytes[i] == '{' || bytes[i] == '[') {
+                    depth++;
+                } else if ((bytes[i] == '}' || bytes[i] == ']') && --depth == 0) {
+                    return i + 1;
+                }
+            }
+
+            throw malformed();
+        }
+
+        private static int skipScalar(final byte[] bytes, final int start, final int end) {
+            int i = start;
+
+            while (i < end && bytes[i] != ',' && bytes[i] != '}' && !isWhitespace(bytes[i])) {
+                i++;
+            }
+
+            return i;
+        }
+
+        private static int skipWhitespace(final byte[] bytes, final int start, final int end) {
+            int i = start;
+
+            while (i < end && isWhitespace(bytes[i])) {
+                i++;
+            }
+
+            return i;
+        }
+
+        private static void expect(final byte[] bytes,
+                                   final int index,
+                                   final int end,
+                                   final char expected) {
+            if (index >= end || bytes[index] != expected) {
+                throw malformed();
+            }
+        }
+
+        private static IllegalArgumentException malformed() {
+            return new IllegalArgumentException("Malformed JSON line.");
+        }
+    }
+}
@@ -0,0 +1,402 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import br.com.armange.commons.cli.util.DaemonThreadFactory;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+public class ResilientCommandRunner implements CommandRunner, AsyncCommandRunner {
+
+    public static final int MIN_HEDGE_SAMPLES = 20;
+
+    private static final ScheduledExecutorService RETRY_SCHEDULER = Executors
+            .newSingleThreadScheduledExecutor(new DaemonThreadFactory("commons-cli-retry-"));
+
+    private final AsyncCommandRunner commandRunner;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final double backoffMultiplier;
+    private final double jitter;
+    private final Set<Integer> retryableCodes;
+    private final Pattern retryPattern;
+    private final Predicate<Throwable> retryableException;
+    private final Double hedgePercentile;
+    private final Duration hedgeDelay;
+    private final Executor executor;
+
+    @Getter
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder attemptCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder hedgeCount = new LongAdder();
+    private final LongAdder hedgeWinCount = new LongAdder();
+    private final LongAdder cancelledCount = new LongAdder();
+    private final LongAdder wastedNanos = new LongAdder();
+
+    @Builder
+    private ResilientCommandRunner(@NonNull final AsyncCommandRunner commandRunner,
+                                   final Integer maxAttempts,
+                                   final Duration initialBackoff,
+                                   final Duration maxBackoff,
+                                   final Double backoffMultiplier,
+                                   final Double jitter,
+                                   final Set<Integer> retryableCodes,
+                                   final Pattern retryPattern,
+                                   final Predicate<Throwable> retryableException,
+                                   final Double hedgePercentile,
+                                   final Duration hedgeDelay,
+                                   final Executor executor) {
+        this.commandRunner = commandRunner;
+        this.maxAttempts = Optional.ofNullable(maxAttempts).orElse(3);
+        this.initialBackoffNanos = Optional.ofNullable(initialBackoff)
+                .orElse(Duration.ofMillis(100)).toNanos();
+        this.maxBackoffNanos = Optional.ofNullable(maxBackoff)
+                .orElse(Duration.ofSeconds(10)).toNanos();
+        this.backoffMultiplier = Optional.ofNullable(backoffMultiplier).orElse(2.0);
+        this.jitter = Optional.ofNullable(jitter).orElse(0.5);
+        this.retryableCodes = Optional.ofNullable(retryableCodes).map(Set::copyOf).orElse(null);
+        this.retryPattern = retryPattern;
+        this.retryableException = Optional.ofNullable(retryableException)
+                .orElse(throwable -> false);
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeDelay = hedgeDelay;
+        this.executor = Optional.ofNullable(executor).orElseGet(CommandExecutors::sharedExecutor);
+
+        if (this.maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be positive: "
+                    + this.maxAttempts);
+        }
+
+        if (this.jitter < 0 || this.jitter > 1) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1: " + this.jitter);
+        }
+    }
+
+    @Override
+    public CommandResult run(final String... command) {
+        return run(null, null, command);
+    }
+
+    @Override
+    public CommandResult run(final List<String> outputLines, final String... command) {
+        return run(null, outputLines, command);
+    }
+
+    @Override
+    public CommandResult run(final File directory, final String... command) {
+        return run(directory, null, command);
+    }
+
+    @Override
+    public CommandResult run(final File directory,
+                             final List<String> outputLines,
+                             final String... command) {
+        try {
+            return runAsync(directory, outputLines, command).join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> runAsync(final String... command) {
+        return runAsync(null, null, command);
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> runAsync(final List<String> outputLines,
+                                                     final String... command) {
+        return runAsync(null, outputLines, command);
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> runAsync(final File directory,
+                                                     final String... command) {
+        return runAsync(directory, null, command);
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> runAsync(final File directory,
+                                                     final List<String> outputLines,
+                                                     final String... command) {
+        final Call call = new Call(directory, outputLines, command.clone());
+
+        call.attempt(1);
+
+        return call.result;
+    }
+
+    public long getAttemptCount() {
+        return attemptCount.sum();
+    }
+
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    public long getHedgeCount() {
+        return hedgeCount.sum();
+    }
+
+    public long getHedgeWinCount() {
+        return hedgeWinCount.sum();
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount.sum();
+    }
+
+    public Duration getWastedTime() {
+        return Duration.ofNanos(wastedNanos.sum());
+    }
+
+    private boolean isRetryable(final CommandResult commandResult, final Throwable throwable) {
+        if (throwable != null) {
+            return !(throwable instanceof CancellationException)
+                    && retryableException.test(throwable);
+        }
+
+        if (commandResult.getResultCode() == 0 && !commandResult.isTimedOut()) {
+            return false;
+        }
+
+        return (retryableCodes == null || commandResult.isTimedOut()
+                || retryableCodes.contains(commandResult.getResultCode()))
+                && (retryPattern == null || commandResult.getResultLines().stream()
+                .anyMatch(line -> retryPattern.matcher(line).find()));
+    }
+
+    private static boolean isSuccess(final CommandResult commandResult,
+                                     final Throwable throwable) {
+        return throwable == null && commandResult.getResultCode() == 0
+                && commandResult.getTermination() == Termination.EXITED;
+    }
+
+    private long backoffNanos(final int attempt) {
+        final double delay = Math.min(maxBackoffNanos,
+                initialBackoffNanos * Math.pow(backoffMultiplier, attempt - 1));
+
+        return (long) (delay * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    private long hedgeDelayNanos() {
+        if (hedgePercentile != null && latency.getCount() >= MIN_HEDGE_SAMPLES) {
+            return latency.getPercentile(hedgePercentile).toNanos();
+        }
+
+        return Optional.ofNullable(hedgeDelay).map(Duration::toNanos).orElse(0L);
+    }
+
+    private static Throwable unwrap(final Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+    }
+
+    private final class Call {
+
+        private final File directory;
+        private final List<String> outputLines;
+        private final String[] command;
+        private final CompletableFuture<CommandResult> result = new CompletableFuture<>();
+        private final Map<CompletableFuture<CommandResult>, Long> running =
+                new ConcurrentHashMap<>();
+
+        private Call(final File directory, final List<String> outputLines, final String[] command) {
+            this.directory = directory;
+            this.outputLines = outputLines;
+            this.command = command;
+
+            result.whenComplete((commandResult, throwable) -> cancelRunning());
+        }
+
+        private void attempt(final int attempt) {
+            if (result.isDone()) {
+                return;
+            }
+
+            final Attempt current = new Attempt();
+
+            current.launch(false);
+            current.scheduleHedge();
+            current.outcome.whenComplete((commandResult, throwable) -> {
+                if (result.isDone()) {
+                    return;
+                }
+
+                if (attempt < maxAttempts && isRetryable(commandResult, throwable)) {
+                    retryCount.increment();
+                    wastedNanos.add(current.decidingNanos);
+                    RETRY_SCHEDULER.schedule(() -> executor.execute(() -> attempt(attempt + 1)),
+                            backoffNanos(attempt), TimeUnit.NANOSECONDS);
+                } else if (throwable != null) {
+                    result.completeExceptionally(unwrap(throwable));
+                } else {
+                    result.complete(commandResult);
+                }
+            });
+        }
+
+        private void cancelRunning() {
+            running.forEach((copy, startedAt) -> {
+                if (copy.cancel(true)) {
+                    cancelledCount.increment();
+                    wastedNanos.add(System.nanoTime() - startedAt);
+                }
+            });
+        }
+
+        private final class Attempt {
+
+            private final CompletableFuture<CommandResult> outcome = new CompletableFuture<>();
+            private final List<CompletableFuture<CommandResult>> copies = new ArrayList<>();
+            private int pending;
+            private long decidingNanos;
+
+            private void scheduleHedge() {
+                final long delayNanos = hedgeDelayNanos();
+
+                if (delayNanos <= 0) {
+                    return;
+                }
+
+                final ScheduledFuture<?> hedge = RETRY_SCHEDULER.schedule(() -> executor.execute(
+                        () -> {
+                            if (!outcome.isDone() && !result.isDone()) {
+                                hedgeCount.increment();
+                                launch(true);
+                            }
+                        }), delayNanos, TimeUnit.NANOSECONDS);
+
+                outcome.whenComplete((commandResult, throwable) -> hedge.cancel(false));
+            }
+
+            private void launch(final boolean hedged) {
+                final long startedAt = System.nanoTime();
+                final CompletableFuture<CommandResult> copy;
+
+                attemptCount.increment();
+
+                synchronized (this) {
+                    pending++;
+                    copy = start();
+                    copies.add(copy);
+                    running.put(copy, startedAt);
+                }
+
+                copy.whenComplete((commandResult, throwable) -> finish(copy, hedged, startedAt,
+                        commandResult, Optional.ofNullable(throwable)
+                                .map(ResilientCommandRunner::unwrap)
+                                .orElse(null)));
+            }
+
+            private CompletableFuture<CommandResult> start() {
+                try {
+                    return commandRunner.runAsync(directory, outputLines, command);
+                } catch (final RuntimeException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+
+            private synchronized void finish(final CompletableFuture<CommandResult> copy,
+                                             final boolean hedged,
+                                             final long startedAt,
+                                             final CommandResult commandResult,
+                                             final Throwable throwable) {
+                final long elapsedNanos = System.nanoTime() - startedAt;
+
+                pending--;
+                running.remove(copy);
+
+                if (outcome.isDone() || copy.isCancelled()) {
+                    return;
+                }
+
+                if (!isRetryable(commandResult, throwable)) {
+                    if (isSuccess(commandResult, throwable)) {
+                        latency.record(Duration.ofNanos(elapsedNanos));
+                    }
+
+                    if (hedged) {
+                        hedgeWinCount.increment();
+                    }
+
+                    cancelLosers(copy);
+                    complete(elapsedNanos, commandResult, throwable);
+                } else if (pending == 0) {
+                    complete(elapsedNanos, commandResult, throwable);
+                } else {
+                    wastedNanos.add(elapsedNanos);
+                }
+            }
+
+            private void cancelLosers(final CompletableFuture<CommandResult> winner) {
+                copies.stream()
+                        .filter(copy -> copy != winner)
+                        .forEach(copy -> Optional.ofNullable(running.remove(copy))
+                                .filter(startedAt -> copy.cancel(true))
+                                .ifPresent(startedAt -> {
+                                    cancelledCount.increment();
+                                    wastedNanos.add(System.nanoTime() - startedAt);
+                                }));
+            }
+
+            private void complete(final long elapsedNanos,
+                                  final CommandResult commandResult,
+                                  final Throwable throwable) {
+                decidingNanos = elapsedNanos;
+
+                if (throwable != null) {
+                    outcome.completeExceptionally(throwable);
+                } else {
+                    outcome.complete(commandResult);
+                }
+            }
+        }
+    }
+}
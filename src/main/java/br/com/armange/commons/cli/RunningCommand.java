@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public final class RunningCommand {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final Process process;
+    private final CommandExecution execution;
+    private final CommandTrace trace;
+    private final CompletableFuture<CommandResult> completion;
+    private final long startedNanos = System.nanoTime();
+    private final AtomicLong endedNanos = new AtomicLong();
+
+    RunningCommand(final Process process,
+                   final CommandExecution execution,
+                   final CommandTrace trace,
+                   final Timeouts timeouts) {
+        this.process = process;
+        this.execution = execution;
+        this.trace = trace;
+        this.completion = execution.completion(timeouts);
+
+        completion.whenComplete((commandResult, throwable) -> end());
+    }
+
+    public long pid() {
+        return process.pid();
+    }
+
+    public ProcessHandle toHandle() {
+        return process.toHandle();
+    }
+
+    public ProcessHandle.Info info() {
+        return process.info();
+    }
+
+    public Optional<Instant> getStartInstant() {
+        return process.info().startInstant();
+    }
+
+    public Optional<Duration> getCpuDuration() {
+        return process.info().totalCpuDuration();
+    }
+
+    public Duration getTotalCpuDuration() {
+        return Stream.concat(Stream.of(process.toHandle()), process.descendants())
+                .map(handle -> handle.info().totalCpuDuration().orElse(Duration.ZERO))
+                .reduce(Duration.ZERO, Duration::plus);
+    }
+
+    public List<ProcessHandle> getDescendants() {
+        return process.descendants().collect(Collectors.toList());
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    public List<String> getPartialOutputLines() {
+        return execution.partialOutputLines();
+    }
+
+    public List<String> getPartialErrorLines() {
+        return execution.partialErrorLines();
+    }
+
+    public long getLinesRead() {
+        return trace.getLinesRead();
+    }
+
+    public long getBytesRead() {
+        return trace.getBytesRead();
+    }
+
+    public long getBytesWritten() {
+        return trace.getBytesWritten();
+    }
+
+    public Duration getElapsed() {
+        return Duration.ofNanos(elapsedNanos());
+    }
+
+    public double getReadRate() {
+        final long elapsedNanos = elapsedNanos();
+
+        return elapsedNanos <= 0 ? 0 : trace.getBytesRead() * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    public CompletableFuture<CommandResult> getCompletion() {
+        return completion;
+    }
+
+    public CommandResult await() {
+        try {
+            return completion.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    public boolean cancel() {
+        return completion.cancel(true);
+    }
+
+    private long elapsedNanos() {
+        if (completion.isDone()) {
+            end();
+        }
+
+        final long ended = endedNanos.get();
+
+        return (ended == 0 ? System.nanoTime() : ended) - startedNanos;
+    }
+
+    private void end() {
+        endedNanos.compareAndSet(0, System.nanoTime());
+    }
+}
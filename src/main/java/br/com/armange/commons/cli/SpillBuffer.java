@@ -0,0 +1,380 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Slf4j
+final class SpillBuffer implements WritableByteChannel {
+
+    static final int INDEX_STRIDE = 32;
+    static final int REGION_BITS = 30;
+    static final int MAX_TEXT_BYTES = 1 << REGION_BITS;
+
+    private static final long REGION_MASK = (1L << REGION_BITS) - 1;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final String FILE_PREFIX = "commons-cli-";
+    private static final String FILE_SUFFIX = ".out";
+    private static final String TRUNCATED_MESSAGE =
+            "%n[%d more bytes truncated, read them with getResultReader() or stream()]%n";
+
+    private final long memoryThreshold;
+    private byte[] memory;
+    private Path file;
+    private FileChannel fileChannel;
+    private long size;
+    private long[] index = new long[16];
+    private long lineCount;
+    private long nextLineStart;
+    private volatile ByteBuffer[] regions;
+    private volatile boolean closed;
+
+    SpillBuffer(final long memoryThreshold) {
+        this.memoryThreshold = memoryThreshold;
+        this.memory = new byte[(int) Math.min(INITIAL_CAPACITY, memoryThreshold)];
+    }
+
+    @Override
+    public synchronized int write(final ByteBuffer source) throws IOException {
+        if (closed || regions != null) {
+            throw new ClosedChannelException();
+        }
+
+        final int length = source.remaining();
+
+        for (int i = 0; i < length; i++) {
+            if (source.get(source.position() + i) == '\n') {
+                lineEnded(size + i + 1);
+            }
+        }
+
+        if (file == null && size + length <= memoryThreshold) {
+            if (size + length > memory.length) {
+                memory = Arrays.copyOf(memory, (int) Math.min(memoryThreshold,
+                        Math.max(memory.length * 2L, size + length)));
+            }
+
+            source.get(memory, (int) size, length);
+        } else {
+            if (file == null) {
+                spill();
+            }
+
+            while (source.hasRemaining()) {
+                fileChannel.write(source);
+            }
+        }
+
+        size += length;
+
+        return length;
+    }
+
+    synchronized void finish() throws IOException {
+        if (closed || regions != null) {
+            return;
+        }
+
+        if (nextLineStart < size) {
+            lineEnded(size);
+        }
+
+        if (file == null) {
+            regions = new ByteBuffer[]{ByteBuffer.wrap(memory, 0, (int) size)};
+
+            return;
+        }
+
+        final ByteBuffer[] mapped = new ByteBuffer[(int) ((size + REGION_MASK) >>> REGION_BITS)];
+
+        for (int i = 0; i < mapped.length; i++) {
+            final long position = (long) i << REGION_BITS;
+
+            mapped[i] = fileChannel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(REGION_MASK + 1, size - position));
+        }
+
+        regions = mapped;
+        fileChannel.close();
+        unlink();
+    }
+
+    synchronized long getLineCount() {
+        return lineCount;
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    Optional<Path> getFile() {
+        return Optional.ofNullable(file);
+    }
+
+    String line(final long line) {
+        final ByteBuffer[] regions = readableRegions();
+
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("Line index out of range: " + line);
+        }
+
+        long start = index[(int) (line / INDEX_STRIDE)];
+
+        for (long i = line % INDEX_STRIDE; i > 0; i--) {
+            start = lineEnd(regions, start) + 1;
+        }
+
+        return decodeLine(regions, start, lineEnd(regions, start));
+    }
+
+    Stream<String> lines() {
+        readableRegions();
+
+        return StreamSupport.stream(new LineSpliterator(), false);
+    }
+
+    String text() {
+        return text(MAX_TEXT_BYTES);
+    }
+
+    String text(final int maxBytes) {
+        final ByteBuffer[] regions = readableRegions();
+        final int length = (int) Math.min(size, maxBytes);
+        final String text = new String(read(regions, 0, length), StandardCharsets.UTF_8);
+
+        return length == size ? text : text + String.format(TRUNCATED_MESSAGE, size - length);
+    }
+
+    InputStream newInputStream() {
+        readableRegions();
+
+        return new RegionInputStream();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        regions = null;
+        memory = null;
+
+        try {
+            if (fileChannel != null) {
+                fileChannel.close();
+            }
+
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (final IOException e) {
+            log.error(e.getMessage(), e);
+
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+    }
+
+    private void unlink() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException e) {
+            log.debug(e.getMessage(), e);
+        }
+    }
+
+    private void spill() throws IOException {
+        file = Files.createTempFile(FILE_PREFIX, FILE_SUFFIX);
+        fileChannel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        final ByteBuffer buffered = ByteBuffer.wrap(memory, 0, (int) size);
+
+        while (buffered.hasRemaining()) {
+            fileChannel.write(buffered);
+        }
+
+        memory = null;
+    }
+
+    private void lineEnded(final long end) {
+        lineCount++;
+        nextLineStart = end;
+
+        if (lineCount % INDEX_STRIDE == 0) {
+            final int slot = (int) (lineCount / INDEX_STRIDE);
+
+            if (slot == index.length) {
+                index = Arrays.copyOf(index, index.length * 2);
+            }
+
+            index[slot] = end;
+        }
+    }
+
+    private long lineEnd(final ByteBuffer[] regions, final long start) {
+        for (long position = start; position < size; position++) {
+            if (byteAt(regions, position) == '\n') {
+                return position;
+            }
+        }
+
+        return size;
+    }
+
+    private static byte byteAt(final ByteBuffer[] regions, final long position) {
+        return regions[(int) (position >>> REGION_BITS)].get((int) (position & REGION_MASK));
+    }
+
+    private static String decodeLine(final ByteBuffer[] regions,
+                                     final long start,
+                                     final long end) {
+        final long lineEnd = end > start && byteAt(regions, end - 1) == '\r' ? end - 1 : end;
+
+        if (lineEnd - start > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The line is too large for a string: "
+                    + (lineEnd - start) + " bytes.");
+        }
+
+        return new String(read(regions, start, (int) (lineEnd - start)), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] read(final ByteBuffer[] regions, final long start, final int length) {
+        final byte[] bytes = new byte[length];
+
+        read(regions, start, bytes, 0, length);
+
+        return bytes;
+    }
+
+    private static void read(final ByteBuffer[] regions,
+                             final long start,
+                             final byte[] target,
+                             final int offset,
+                             final int length) {
+        int copied = 0;
+
+        while (copied < length) {
+            final long position = start + copied;
+            final ByteBuffer region = regions[(int) (position >>> REGION_BITS)].duplicate();
+            final int regionOffset = (int) (position & REGION_MASK);
+            final int count = Math.min(length - copied, region.limit() - regionOffset);
+
+            region.position(regionOffset);
+            region.get(target, offset + copied, count);
+            copied += count;
+        }
+    }
+
+    private ByteBuffer[] readableRegions() {
+        final ByteBuffer[] readable = regions;
+
+        if (closed) {
+            throw new IllegalStateException("The spilled output was already closed.");
+        }
+
+        if (readable == null) {
+            throw new IllegalStateException("The spilled output is still being written.");
+        }
+
+        return readable;
+    }
+
+    private final class LineSpliterator extends Spliterators.AbstractSpliterator<String> {
+
+        private long position;
+        private long line;
+
+        private LineSpliterator() {
+            super(lineCount, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED);
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super String> action) {
+            if (line == lineCount) {
+                return false;
+            }
+
+            final ByteBuffer[] regions = readableRegions();
+            final long end = lineEnd(regions, position);
+
+            action.accept(decodeLine(regions, position, end));
+            position = end + 1;
+            line++;
+
+            return true;
+        }
+    }
+
+    private final class RegionInputStream extends InputStream {
+
+        private long position;
+
+        @Override
+        public int read() {
+            final ByteBuffer[] regions = readableRegions();
+
+            return position < size ? byteAt(regions, position++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] target, final int offset, final int length) {
+            final ByteBuffer[] regions = readableRegions();
+
+            if (length == 0) {
+                return 0;
+            }
+
+            if (position == size) {
+                return -1;
+            }
+
+            final int count = (int) Math.min(length, size - position);
+
+            SpillBuffer.read(regions, position, target, offset, count);
+            position += count;
+
+            return count;
+        }
+    }
+}
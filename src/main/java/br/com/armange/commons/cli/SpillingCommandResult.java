@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.Stream;
+
+public final class SpillingCommandResult extends ForwardingCommandResult
+        implements AutoCloseable {
+
+    private final ByteCommandResult commandResult;
+    private final SpillBuffer spillBuffer;
+
+    SpillingCommandResult(final ByteCommandResult commandResult, final SpillBuffer spillBuffer) {
+        this.commandResult = commandResult;
+        this.spillBuffer = spillBuffer;
+    }
+
+    @Override
+    CommandResult delegate() {
+        return commandResult;
+    }
+
+    @Override
+    public String getResultMessage() {
+        return spillBuffer.text().concat(commandResult.getResultMessage());
+    }
+
+    @Override
+    public List<String> getResultLines() {
+        return new ResultLines(getErrorLines());
+    }
+
+    @Override
+    public List<String> getOutputLines() {
+        return new ResultLines(List.of());
+    }
+
+    @Override
+    public List<TimelineEntry> getTimeline() {
+        return List.of();
+    }
+
+    @Override
+    public CharSequence getResultCharSequence() {
+        return getResultMessage();
+    }
+
+    @Override
+    public Reader getResultReader() {
+        return new InputStreamReader(new SequenceInputStream(spillBuffer.newInputStream(),
+                new ByteArrayInputStream(commandResult.getResultMessage()
+                        .getBytes(StandardCharsets.UTF_8))), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Stream<String> stream() {
+        return Stream.concat(spillBuffer.lines(), getErrorLines().stream());
+    }
+
+    public long getByteCount() {
+        return commandResult.getByteCount();
+    }
+
+    public long getOutputLineCount() {
+        return spillBuffer.getLineCount();
+    }
+
+    public boolean isSpilled() {
+        return spillBuffer.getFile().isPresent();
+    }
+
+    @Override
+    public void close() {
+        spillBuffer.close();
+    }
+
+    private final class ResultLines extends AbstractList<String> implements RandomAccess {
+
+        private final List<String> errorLines;
+        private final int outputLineCount;
+
+        private ResultLines(final List<String> errorLines) {
+            final long lineCount = spillBuffer.getLineCount() + errorLines.size();
+
+            if (lineCount > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Too many lines for a list: " + lineCount
+                        + ". Use stream() instead.");
+            }
+
+            this.errorLines = errorLines;
+            this.outputLineCount = (int) spillBuffer.getLineCount();
+        }
+
+        @Override
+        public String get(final int index) {
+            return index < outputLineCount
+                    ? spillBuffer.line(index)
+                    : errorLines.get(index - outputLineCount);
+        }
+
+        @Override
+        public int size() {
+            return outputLineCount + errorLines.size();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import br.com.armange.commons.cli.util.CollectionsUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Slf4j
+public abstract class StdinSource {
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private static final StdinSource NONE = new StdinSource() {
+        @Override
+        void writeTo(final OutputStream outputStream, final FlushPolicy flushPolicy) {
+        }
+
+        @Override
+        CompletableFuture<Void> feed(final Process process,
+                                     final FlushPolicy flushPolicy,
+                                     final Consumer<String> errorConsumer,
+                                     final Consumer<CountingOutputStream> writtenConsumer,
+                                     final Executor executor) {
+            return CompletableFuture.completedFuture(null);
+        }
+    };
+
+    abstract void writeTo(OutputStream outputStream, FlushPolicy flushPolicy) throws IOException;
+
+    CompletableFuture<Void> feed(final Process process,
+                                 final FlushPolicy flushPolicy,
+                                 final Consumer<String> errorConsumer,
+                                 final Consumer<CountingOutputStream> writtenConsumer,
+                                 final Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            try (final CountingOutputStream outputStream = new CountingOutputStream(
+                    process.getOutputStream())) {
+                write(process, outputStream, flushPolicy, errorConsumer);
+                writtenConsumer.accept(outputStream);
+            } catch (final IOException e) {
+                log.debug(e.getMessage(), e);
+            }
+        }, executor);
+    }
+
+    private void write(final Process process,
+                       final OutputStream outputStream,
+                       final FlushPolicy flushPolicy,
+                       final Consumer<String> errorConsumer) {
+        try {
+            writeTo(outputStream, flushPolicy);
+        } catch (final IOException | UncheckedIOException e) {
+            if (process.isAlive()) {
+                Optional.ofNullable(e.getMessage()).ifPresent(errorConsumer);
+                log.error(e.getMessage(), e);
+            } else {
+                log.debug(e.getMessage(), e);
+            }
+        } catch (final RuntimeException e) {
+            Optional.ofNullable(e.getMessage()).ifPresent(errorConsumer);
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    public static StdinSource none() {
+        return NONE;
+    }
+
+    public static StdinSource lines(final List<String> lines) {
+        return CollectionsUtil.isNotEmpty(lines) ? new LineSource(lines::stream) : NONE;
+    }
+
+    public static StdinSource lines(final Stream<String> lines) {
+        return new LineSource(() -> lines);
+    }
+
+    public static StdinSource inputStream(final InputStream inputStream) {
+        return new ByteSource(inputStream);
+    }
+
+    public static StdinSource channel(final ReadableByteChannel channel) {
+        return new ByteSource(Channels.newInputStream(channel));
+    }
+
+    public static StdinSource path(final Path path) {
+        return new StdinSource() {
+            @Override
+            void writeTo(final OutputStream outputStream,
+                         final FlushPolicy flushPolicy) throws IOException {
+                try (final InputStream inputStream = Files.newInputStream(path)) {
+                    new ByteSource(inputStream).writeTo(outputStream, flushPolicy);
+                }
+            }
+        };
+    }
+
+    private static final class LineSource extends StdinSource {
+
+        private final Supplier<Stream<String>> lines;
+
+        private LineSource(final Supplier<Stream<String>> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        void writeTo(final OutputStream outputStream,
+                     final FlushPolicy flushPolicy) throws IOException {
+            try (final Stream<String> stream = lines.get()) {
+                writeTo(stream.iterator(), outputStream, flushPolicy);
+            }
+        }
+
+        private static void writeTo(final Iterator<String> lines,
+                                    final OutputStream outputStream,
+                                    final FlushPolicy flushPolicy) throws IOException {
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream),
+                    BUFFER_SIZE);
+
+            while (lines.hasNext()) {
+                writer.write(lines.next());
+                writer.write('\n');
+
+                if (flushPolicy == FlushPolicy.EACH_LINE) {
+                    writer.flush();
+                }
+            }
+
+            writer.flush();
+        }
+    }
+
+    private static final class ByteSource extends StdinSource {
+
+        private final InputStream inputStream;
+
+        private ByteSource(final InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        @Override
+        void writeTo(final OutputStream outputStream,
+                     final FlushPolicy flushPolicy) throws IOException {
+            final OutputStream bufferedOutputStream = new BufferedOutputStream(outputStream,
+                    BUFFER_SIZE);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+
+            for (int read = inputStream.read(buffer); read != -1; read = inputStream.read(buffer)) {
+                final int lineEnd = flushPolicy == FlushPolicy.EACH_LINE
+                        ? lastNewLine(buffer, read) + 1
+                        : 0;
+
+                bufferedOutputStream.write(buffer, 0, lineEnd);
+
+                if (lineEnd > 0) {
+                    bufferedOutputStream.flush();
+                }
+
+                bufferedOutputStream.write(buffer, lineEnd, read - lineEnd);
+            }
+
+            bufferedOutputStream.flush();
+        }
+
+        private static int lastNewLine(final byte[] buffer, final int length) {
+            for (int i = length - 1; i >= 0; i--) {
+                if (buffer[i] == '\n') {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+    }
+}
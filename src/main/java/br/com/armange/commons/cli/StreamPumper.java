@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class StreamPumper {
+
+    static CompletableFuture<Void> pump(final InputStream inputStream,
+                                        final Consumer<String> lineConsumer,
+                                        final Consumer<String> errorConsumer,
+                                        final Executor executor) {
+        return CompletableFuture.runAsync(
+                () -> readAllLines(inputStream, lineConsumer, errorConsumer), executor);
+    }
+
+    private static void readAllLines(final InputStream inputStream,
+                                     final Consumer<String> lineConsumer,
+                                     final Consumer<String> errorConsumer) {
+        try (final var bufferedReader = new BufferedReader(new InputStreamReader(inputStream))) {
+            addAllLines(bufferedReader, lineConsumer, errorConsumer);
+        } catch (final IOException e) {
+            Optional.ofNullable(e.getMessage()).ifPresent(errorConsumer);
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    private static void addAllLines(final BufferedReader bufferedReader,
+                                    final Consumer<String> lineConsumer,
+                                    final Consumer<String> errorConsumer) {
+        try {
+            bufferedReader.lines().forEach(lineConsumer);
+        } catch (final Exception e) {
+            Optional.ofNullable(e.getMessage()).ifPresent(errorConsumer);
+            log.error(e.getMessage(), e);
+        }
+    }
+}
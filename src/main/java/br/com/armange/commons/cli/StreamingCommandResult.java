@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public final class StreamingCommandResult extends ForwardingCommandResult
+        implements AutoCloseable {
+
+    static final int DEFAULT_CAPACITY = 1024;
+
+    private final LineQueue lineQueue;
+    private final CompletableFuture<CommandResult> completion;
+
+    private StreamingCommandResult(final LineQueue lineQueue,
+                                   final CompletableFuture<CommandResult> completion) {
+        this.lineQueue = lineQueue;
+        this.completion = completion;
+    }
+
+    @Override
+    CommandResult delegate() {
+        return completion.join();
+    }
+
+    @Override
+    public Stream<String> stream() {
+        return StreamSupport
+                .stream(lineQueue, false)
+                .onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        if (lineQueue.close()) {
+            completion.cancel(true);
+        }
+    }
+
+    static StreamingCommandResult newStreamingCommandResult(final Process process,
+                                                            final StdinSource stdinSource,
+                                                            final FlushPolicy flushPolicy,
+                                                            final Executor executor,
+                                                            final Timeouts timeouts,
+                                                            final CommandTrace trace) {
+        final LineQueue lineQueue = new LineQueue(DEFAULT_CAPACITY);
+        final CommandExecution execution = new CommandExecution(process, lineQueue::put,
+                executor, trace).feed(stdinSource, flushPolicy);
+
+        execution.drained().whenComplete((unused, throwable) -> lineQueue.putEndOfStream());
+
+        return new StreamingCommandResult(lineQueue,
+                execution.completion(timeouts));
+    }
+
+    private static final class LineQueue extends Spliterators.AbstractSpliterator<String> {
+
+        @SuppressWarnings("StringOperationCanBeSimplified")
+        private static final String END_OF_STREAM = new String();
+
+        private final BlockingQueue<String> lines;
+        private volatile boolean closed;
+        private volatile boolean exhausted;
+
+        private LineQueue(final int capacity) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+
+            this.lines = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void put(final String line) {
+            try {
+                if (!closed) {
+                    lines.put(line);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+
+        private void putEndOfStream() {
+            put(END_OF_STREAM);
+        }
+
+        private boolean close() {
+            if (exhausted || closed) {
+                return false;
+            }
+
+            closed = true;
+            lines.clear();
+            lines.offer(END_OF_STREAM);
+
+            return true;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super String> action) {
+            if (exhausted || closed) {
+                return false;
+            }
+
+            try {
+                final String line = lines.take();
+
+                if (line == END_OF_STREAM) {
+                    exhausted = true;
+
+                    return false;
+                }
+
+                action.accept(line);
+
+                return true;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public enum WorkerFraming {
+
+    LINE {
+        @Override
+        void writeRequest(final OutputStream outputStream,
+                          final List<String> lines,
+                          final String delimiter) throws IOException {
+            writeLine(outputStream, String.join(" ", lines));
+        }
+
+        @Override
+        List<String> readResponse(final InputStream inputStream,
+                                  final String delimiter) throws IOException {
+            final String line = readLine(inputStream);
+
+            return line == null ? null : List.of(line);
+        }
+    },
+
+    DELIMITED {
+        @Override
+        void writeRequest(final OutputStream outputStream,
+                          final List<String> lines,
+                          final String delimiter) throws IOException {
+            for (final String line : lines) {
+                writeLine(outputStream, line);
+            }
+
+            writeLine(outputStream, delimiter);
+        }
+
+        @Override
+        List<String> readResponse(final InputStream inputStream,
+                                  final String delimiter) throws IOException {
+            final List<String> lines = new ArrayList<>();
+
+            for (String line = readLine(inputStream); line != null; line = readLine(inputStream)) {
+                if (line.equals(delimiter)) {
+                    return lines;
+                }
+
+                lines.add(line);
+            }
+
+            return null;
+        }
+    },
+
+    LENGTH_PREFIXED {
+        @Override
+        void writeRequest(final OutputStream outputStream,
+                          final List<String> lines,
+                          final String delimiter) throws IOException {
+            final byte[] payload = String.join(NEW_LINE, lines).getBytes(StandardCharsets.UTF_8);
+
+            writeLine(outputStream, String.valueOf(payload.length));
+            outputStream.write(payload);
+        }
+
+        @Override
+        List<String> readResponse(final InputStream inputStream,
+                                  final String delimiter) throws IOException {
+            final String header = readLine(inputStream);
+
+            if (header == null) {
+                return null;
+            }
+
+            final int length = parseLength(header);
+            final byte[] payload = inputStream.readNBytes(length);
+
+            if (payload.length < length) {
+                return null;
+            }
+
+            return length == 0
+                    ? List.of()
+                    : Arrays.asList(new String(payload, StandardCharsets.UTF_8).split(NEW_LINE, -1));
+        }
+    };
+
+    private static final String NEW_LINE = "\n";
+
+    abstract void writeRequest(OutputStream outputStream,
+                               List<String> lines,
+                               String delimiter) throws IOException;
+
+    abstract List<String> readResponse(InputStream inputStream,
+                                       String delimiter) throws IOException;
+
+    private static void writeLine(final OutputStream outputStream,
+                                  final String line) throws IOException {
+        outputStream.write(line.getBytes(StandardCharsets.UTF_8));
+        outputStream.write('\n');
+    }
+
+    private static String readLine(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        for (int read = inputStream.read(); read != -1; read = inputStream.read()) {
+            if (read == '\n') {
+                return stripCarriageReturn(line.toString(StandardCharsets.UTF_8));
+            }
+
+            line.write(read);
+        }
+
+        return line.size() == 0 ? null : line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static int parseLength(final String header) throws IOException {
+        try {
+            final int length = Integer.parseInt(header.trim());
+
+            if (length < 0) {
+                throw new IOException("Negative response length: " + header);
+            }
+
+            return length;
+        } catch (final NumberFormatException e) {
+            throw new IOException("Invalid response length header: " + header, e);
+        }
+    }
+
+    private static String stripCarriageReturn(final String line) {
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2022 Diego Armange Costa (https://github.com/armange)
+ * <p>
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package br.com.armange.commons.cli;
+
+import br.com.armange.commons.cli.util.DaemonThreadFactory;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+@Slf4j
+public class WorkerPool implements PreparedCommandRunner, AutoCloseable {
+
+    private static final ScheduledExecutorService MAINTENANCE_SCHEDULER = Executors
+            .newSingleThreadScheduledExecutor(new DaemonThreadFactory("commons-cli-worker-pool-"));
+    private static final ScheduledExecutorService TIMEOUT_SCHEDULER = Executors
+            .newSingleThreadScheduledExecutor(
+                    new DaemonThreadFactory("commons-cli-worker-timeout-"));
+
+    private final ProcessBuilder processBuilder;
+    private final WorkerFraming framing;
+    private final String delimiter;
+    private final int maxRequestsPerWorker;
+    private final Duration requestTimeout;
+    private final Duration idleTimeout;
+    private final List<String> healthCheckRequest;
+    private final Predicate<List<String>> healthCheck;
+    private final Executor executor;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledWorker> idleWorkers = new LinkedBlockingDeque<>();
+    private final ScheduledFuture<?> maintenanceTask;
+    private volatile boolean closed;
+
+    @Builder
+    private WorkerPool(@NonNull final List<String> command,
+                       final File directory,
+                       final WorkerFraming framing,
+                       final String delimiter,
+                       final Integer maxWorkers,
+                       final Integer maxRequestsPerWorker,
+                       final Duration requestTimeout,
+                       final Duration idleTimeout,
+                       final List<String> healthCheckRequest,
+                       final Predicate<List<String>> healthCheck,
+                       final Executor executor,
+                       final CommandEnvironment environment) {
+        final CommandEnvironment resolvedEnvironment = Optional.ofNullable(environment)
+                .orElseGet(CommandEnvironment::inherit);
+        final List<String> resolvedCommand = new ArrayList<>(command);
+
+        resolvedCommand.set(0, DefaultPreparedCommandRunner.resolveExecutable(command.get(0),
+                resolvedEnvironment));
+
+        this.processBuilder = new ProcessBuilder(resolvedCommand).directory(directory);
+        resolvedEnvironment.applyTo(processBuilder);
+        this.framing = Optional.ofNullable(framing).orElse(WorkerFraming.LINE);
+        this.delimiter = delimiter;
+
+        if (this.framing == WorkerFraming.DELIMITED && (delimiter == null || delimiter.isEmpty())) {
+            throw new IllegalArgumentException("Delimited framing requires a non-empty delimiter.");
+        }
+
+        this.maxRequestsPerWorker = Optional.ofNullable(maxRequestsPerWorker)
+                .orElse(Integer.MAX_VALUE);
+        this.requestTimeout = Optional.ofNullable(requestTimeout).orElse(Duration.ofSeconds(10));
+        this.idleTimeout = Optional.ofNullable(idleTimeout).orElse(Duration.ofMinutes(1));
+        this.healthCheckRequest = healthCheckRequest;
+        this.healthCheck = Optional.ofNullable(healthCheck).orElse(response -> true);
+        this.executor = Optional.ofNullable(executor).orElseGet(CommandExecutors::sharedExecutor);
+        this.permits = new Semaphore(Optional.ofNullable(maxWorkers)
+                .orElseGet(() -> Runtime.getRuntime().availableProcessors()));
+
+        final long maintenanceMillis = Math.max(1, this.idleTimeout.toMillis() / 2);
+
+        this.maintenanceTask = MAINTENANCE_SCHEDULER.scheduleWithFixedDelay(this::maintain,
+                maintenanceMillis, maintenanceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CommandResult run(final String... outputLines) {
+        final List<String> request = outputLines == null
+                ? Collections.emptyList()
+                : Arrays.asList(outputLines);
+        final PooledWorker worker = borrow();
+        boolean reusable = false;
+
+        try {
+            final List<String> response = exchange(worker, request, false);
+
+            if (response == null) {
+                final DefaultCommandResult commandResult = DefaultCommandResult
+                        .newDefaultCommandResult(worker.exitValue(), Collections.emptyList());
+
+                commandResult.appendAdditionalMessage(CommandExecution.ERROR_MESSAGE);
+
+                return commandResult;
+            }
+
+            reusable = true;
+
+            return DefaultCommandResult.newDefaultCommandResult(0, response);
+        } finally {
+            release(worker, reusable);
+        }
+    }
+
+    public int getIdleCount() {
+        return idleWorkers.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        maintenanceTask.cancel(false);
+
+        for (PooledWorker worker = idleWorkers.poll(); worker != null; worker = idleWorkers.poll()) {
+            worker.destroy();
+        }
+    }
+
+    private List<String> exchange(final PooledWorker worker,
+                                  final List<String> request,
+                                  final boolean probe) {
+        final ScheduledFuture<?> timeoutTask = TIMEOUT_SCHEDULER.schedule(worker::destroy,
+                requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        try {
+            return probe ? worker.probe(request) : worker.exchange(request);
+        } catch (final IOException e) {
+            log.error(e.getMessage(), e);
+
+            return null;
+        } finally {
+            timeoutTask.cancel(false);
+        }
+    }
+
+    private PooledWorker borrow() {
+        if (closed) {
+            throw new IllegalStateException("The worker pool is closed.");
+        }
+
+        try {
+            permits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            log.error(e.getMessage(), e);
+
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+
+        for (PooledWorker worker = idleWorkers.pollFirst(); worker != null;
+             worker = idleWorkers.pollFirst()) {
+            if (worker.isAlive()) {
+                return worker;
+            }
+        }
+
+        try {
+            return new PooledWorker(processBuilder.start(), framing, delimiter, executor);
+        } catch (final IOException e) {
+            permits.release();
+
+            log.error(e.getMessage(), e);
+
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+    }
+
+    private void release(final PooledWorker worker, final boolean reusable) {
+        try {
+            if (closed || !reusable || !worker.isAlive()
+                    || worker.getRequestCount() >= maxRequestsPerWorker) {
+                worker.destroy();
+            } else {
+                idleWorkers.offerFirst(worker);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void maintain() {
+        final long idleLimit = System.nanoTime() - idleTimeout.toNanos();
+        final Iterator<PooledWorker> iterator = idleWorkers.descendingIterator();
+
+        while (iterator.hasNext()) {
+            final PooledWorker worker = iterator.next();
+
+            if (worker.getLastUsedNanos() < idleLimit || !worker.isAlive()) {
+                if (idleWorkers.removeLastOccurrence(worker)) {
+                    worker.destroy();
+                }
+            } else if (healthCheckRequest != null && idleWorkers.removeLastOccurrence(worker)) {
+                executor.execute(() -> checkHealth(worker));
+            }
+        }
+    }
+
+    private void checkHealth(final PooledWorker worker) {
+        final List<String> response = exchange(worker, healthCheckRequest, true);
+
+        if (response != null && healthCheck.test(response) && !closed) {
+            idleWorkers.offerLast(worker);
+        } else {
+            log.warn("Discarding unhealthy worker.");
+            worker.destroy();
+        }
+    }
+}
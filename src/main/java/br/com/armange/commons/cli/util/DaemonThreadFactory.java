@@ -0,0 +1,23 @@
+package br.com.armange.commons.cli.util;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RequiredArgsConstructor
+public final class DaemonThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final String threadNamePrefix;
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable,
+                threadNamePrefix + threadCount.incrementAndGet());
+
+        thread.setDaemon(true);
+
+        return thread;
+    }
+}
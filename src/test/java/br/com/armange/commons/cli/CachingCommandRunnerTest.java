@@ -0,0 +1,207 @@
+package br.com.armange.commons.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingCommandRunnerTest {
+
+    @Test
+    void shouldReturnCachedResultForIdenticalCommand() {
+        final CountingCommandRunner commandRunner = new CountingCommandRunner(0);
+        final CachingCommandRunner cachingCommandRunner = CachingCommandRunner.builder()
+                .commandRunner(commandRunner)
+                .build();
+
+        final CommandResult first = cachingCommandRunner.run("git", "rev-parse", "HEAD");
+        final CommandResult second = cachingCommandRunner.run("git", "rev-parse", "HEAD");
+
+        assertEquals(first.getResultMessage(), second.getResultMessage());
+        assertNotSame(first, second);
+        assertEquals(1, commandRunner.runs.get());
+        assertEquals(1, cachingCommandRunner.getHitCount());
+        assertEquals(1, cachingCommandRunner.getMissCount());
+    }
+
+    @Test
+    void shouldKeyByOutputLinesAndCommand() {
+        final CountingCommandRunner commandRunner = new CountingCommandRunner(0);
+        final CachingCommandRunner cachingCommandRunner = CachingCommandRunner.builder()
+                .commandRunner(commandRunner)
+                .build();
+
+        cachingCommandRunner.run(List.of("a"), "cat");
+        cachingCommandRunner.run(List.of("b"), "cat");
+        cachingCommandRunner.run("cat");
+
+        assertEquals(3, commandRunner.runs.get());
+    }
+
+    @Test
+    void shouldNotCacheFailuresByDefault() {
+        final CountingCommandRunner commandRunner = new CountingCommandRunner(1);
+        final CachingCommandRunner cachingCommandRunner = CachingCommandRunner.builder()
+                .commandRunner(commandRunner)
+                .build();
+
+        cachingCommandRunner.run("false");
+        cachingCommandRunner.run("false");
+
+        assertEquals(2, commandRunner.runs.get());
+    }
+
+    @Test
+    void shouldNeverCacheTimedOutResults() {
+        final CountingCommandRunner commandRunner = new CountingCommandRunner(0,
+                Termination.TIMED_OUT);
+        final CachingCommandRunner cachingCommandRunner = CachingCommandRunner.builder()
+                .commandRunner(commandRunner)
+                .cacheFailures(true)
+                .build();
+
+        cachingCommandRunner.run("slow");
+        cachingCommandRunner.run("slow");
+
+        assertEquals(2, commandRunner.runs.get());
+        assertEquals(0, cachingCommandRunner.size());
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTimeToLive() throws InterruptedException {
+        final CountingCommandRunner commandRunner = new CountingCommandRunner(0);
+        final CachingCommandRunner cachingCommandRunner = CachingCommandRunner.builder()
+                .commandRunner(commandRunner)
+                .timeToLive(Duration.ofMillis(50))
+                .build();
+
+        cachingCommandRunner.run("date");
+        Thread.sleep(100);
+        cachingCommandRunner.run("date");
+
+        assertEquals(2, commandRunner.runs.get());
+        assertEquals(1, cachingCommandRunner.getEvictionCount());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntries() {
+        final CountingCommandRunner commandRunner = new CountingCommandRunner(0);
+        final CachingCommandRunner cachingCommandRunner = CachingCommandRunner.builder()
+                .commandRunner(commandRunner)
+                .maxEntries(2)
+                .build();
+
+        cachingCommandRunner.run("a");
+        cachingCommandRunner.run("b");
+        cachingCommandRunner.run("a");
+        cachingCommandRunner.run("c");
+        cachingCommandRunner.run("a");
+
+        assertEquals(3, commandRunner.runs.get());
+        assertEquals(2, cachingCommandRunner.size());
+    }
+
+    @Test
+    void shouldInvalidateWhenWatchedFileChanges() throws IOException {
+        final Path directory = Files.createTempDirectory(null);
+        final Path watchedFile = Files.writeString(directory.resolve("HEAD"), "1");
+        final CountingCommandRunner commandRunner = new CountingCommandRunner(0);
+        final CachingCommandRunner cachingCommandRunner = CachingCommandRunner.builder()
+                .commandRunner(commandRunner)
+                .watchedFiles(List.of("HEAD"))
+                .build();
+
+        cachingCommandRunner.run(directory.toFile(), "git", "rev-parse", "HEAD");
+        cachingCommandRunner.run(directory.toFile(), "git", "rev-parse", "HEAD");
+        Files.setLastModifiedTime(watchedFile, FileTime.fromMillis(
+                Files.getLastModifiedTime(watchedFile).toMillis() + 10_000));
+        cachingCommandRunner.run(directory.toFile(), "git", "rev-parse", "HEAD");
+
+        assertEquals(2, commandRunner.runs.get());
+    }
+
+    @Test
+    void shouldDeduplicateConcurrentIdenticalCalls() {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountingCommandRunner commandRunner = new CountingCommandRunner(0) {
+            @Override
+            public CommandResult run(final File directory,
+                                     final List<String> outputLines,
+                                     final String... command) {
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                return super.run(directory, outputLines, command);
+            }
+        };
+        final CachingCommandRunner cachingCommandRunner = CachingCommandRunner.builder()
+                .commandRunner(commandRunner)
+                .build();
+        final CompletableFuture<CommandResult> first = CompletableFuture
+                .supplyAsync(() -> cachingCommandRunner.run("slow"));
+        final CompletableFuture<CommandResult> second = CompletableFuture
+                .supplyAsync(() -> cachingCommandRunner.run("slow"));
+
+        while (cachingCommandRunner.getMissCount() + cachingCommandRunner.getHitCount() < 2) {
+            Thread.onSpinWait();
+        }
+
+        release.countDown();
+
+        assertEquals(0, first.join().getResultCode());
+        assertEquals(0, second.join().getResultCode());
+        assertEquals(1, commandRunner.runs.get());
+    }
+
+    private static class CountingCommandRunner implements CommandRunner {
+
+        private final AtomicInteger runs = new AtomicInteger();
+        private final int resultCode;
+        private final Termination termination;
+
+        private CountingCommandRunner(final int resultCode) {
+            this(resultCode, Termination.EXITED);
+        }
+
+        private CountingCommandRunner(final int resultCode, final Termination termination) {
+            this.resultCode = resultCode;
+            this.termination = termination;
+        }
+
+        @Override
+        public CommandResult run(final String... command) {
+            return run(null, null, command);
+        }
+
+        @Override
+        public CommandResult run(final List<String> outputLines, final String... command) {
+            return run(null, outputLines, command);
+        }
+
+        @Override
+        public CommandResult run(final File directory, final String... command) {
+            return run(directory, null, command);
+        }
+
+        @Override
+        public CommandResult run(final File directory,
+                                 final List<String> outputLines,
+                                 final String... command) {
+            return DefaultCommandResult.newDefaultCommandResult(resultCode,
+                    List.of("run " + runs.incrementAndGet()), 0, 0, termination);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package br.com.armange.commons.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandBatchTest {
+
+    public static final int COMMANDS = 8;
+
+    @Test
+    void shouldLimitParallelismAndSummarizeResults() {
+        final SleepingCommandRunner commandRunner = new SleepingCommandRunner();
+        final List<CommandSpec> specs = specs("50", "50", "50", "50", "50", "50", "50", "50");
+
+        try (final CommandBatch batch = CommandBatch.builder()
+                .commandRunner(commandRunner)
+                .parallelism(2)
+                .build()) {
+            final BatchSummary summary = batch.run(specs);
+
+            assertEquals(2, commandRunner.maxRunning.get());
+            assertTrue(summary.isSuccessful());
+            assertEquals(COMMANDS, summary.getSucceededCount());
+            assertEquals(COMMANDS, summary.getEntries().size());
+            assertTrue(summary.getTotalRunTime().compareTo(summary.getWallTime()) > 0);
+            assertTrue(summary.getMaxRunTime().toMillis() >= 50);
+        }
+    }
+
+    @Test
+    void shouldStreamResultsInSubmissionOrder() {
+        final List<Integer> indexes = new CopyOnWriteArrayList<>();
+
+        try (final CommandBatch batch = CommandBatch.builder()
+                .commandRunner(new SleepingCommandRunner())
+                .parallelism(4)
+                .order(CommandBatch.Order.SUBMISSION)
+                .build()) {
+            batch.run(specs("200", "10", "100", "0"), entry -> indexes.add(entry.getIndex()));
+        }
+
+        assertThat(indexes, contains(0, 1, 2, 3));
+    }
+
+    @Test
+    void shouldStreamResultsInCompletionOrder() {
+        final List<Integer> indexes = new CopyOnWriteArrayList<>();
+
+        try (final CommandBatch batch = CommandBatch.builder()
+                .commandRunner(new SleepingCommandRunner())
+                .parallelism(2)
+                .build()) {
+            batch.run(specs("300", "0"), entry -> indexes.add(entry.getIndex()));
+        }
+
+        assertThat(indexes, contains(1, 0));
+    }
+
+    @Test
+    void shouldCollectAllFailures() {
+        try (final CommandBatch batch = CommandBatch.builder()
+                .commandRunner(new SleepingCommandRunner())
+                .parallelism(1)
+                .build()) {
+            final BatchSummary summary = batch.run(specs("0", "fail", "0", "error"));
+
+            assertEquals(2, summary.getSucceededCount());
+            assertEquals(2, summary.getFailedCount());
+            assertEquals(0, summary.getSkippedCount());
+            assertEquals(1, summary.getEntries().get(1).getCommandResult().getResultCode());
+            assertTrue(summary.getEntries().get(3).getFailure()
+                    instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    void shouldSkipRemainingCommandsWhenFailingFast() {
+        final List<BatchEntry> entries = new CopyOnWriteArrayList<>();
+
+        try (final CommandBatch batch = CommandBatch.builder()
+                .commandRunner(new SleepingCommandRunner())
+                .parallelism(1)
+                .failurePolicy(CommandBatch.FailurePolicy.FAIL_FAST)
+                .build()) {
+            final BatchSummary summary = batch.run(specs("0", "fail", "0", "0"), entries::add);
+
+            assertEquals(1, summary.getSucceededCount());
+            assertEquals(1, summary.getFailedCount());
+            assertEquals(2, summary.getSkippedCount());
+            assertFalse(summary.isSuccessful());
+            assertThat(entries.stream().map(BatchEntry::getIndex).collect(Collectors.toList()),
+                    containsInAnyOrder(0, 1));
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidParallelism() {
+        final CommandBatch.CommandBatchBuilder builder = CommandBatch.builder()
+                .commandRunner(new SleepingCommandRunner())
+                .parallelism(0);
+
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    private static List<CommandSpec> specs(final String... arguments) {
+        return IntStream.range(0, arguments.length)
+                .mapToObj(i -> CommandSpec.of(arguments[i]))
+                .collect(Collectors.toList());
+    }
+
+    private static final class SleepingCommandRunner implements CommandRunner {
+
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        @Override
+        public CommandResult run(final String... command) {
+            return run(null, null, command);
+        }
+
+        @Override
+        public CommandResult run(final List<String> outputLines, final String... command) {
+            return run(null, outputLines, command);
+        }
+
+        @Override
+        public CommandResult run(final File directory, final String... command) {
+            return run(directory, null, command);
+        }
+
+        @Override
+        public CommandResult run(final File directory,
+                                 final List<String> outputLines,
+                                 final String... command) {
+            if ("error".equals(command[0])) {
+                throw new IllegalStateException(command[0]);
+            }
+
+            if ("fail".equals(command[0])) {
+                return DefaultCommandResult.newDefaultCommandResult(1, Collections.emptyList());
+            }
+
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+
+            try {
+                Thread.sleep(Long.parseLong(command[0]));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+
+            return DefaultCommandResult.newDefaultCommandResult(0, Collections.emptyList());
+        }
+    }
+}
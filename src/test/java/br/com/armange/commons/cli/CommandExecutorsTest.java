@@ -0,0 +1,184 @@
+package br.com.armange.commons.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandExecutorsTest {
+
+    public static final String JAVA = "java";
+    public static final String JACOCO = "JaCoCo";
+    public static final String FIXTURES = "fixtures";
+    public static final int FAN_OUT_COMMANDS = 120;
+    public static final int FAN_OUT_TIMEOUT_SECONDS = 20;
+    public static final int ELASTIC_TASKS = 4;
+
+    @Test
+    void shouldRunCommandWithVirtualThreadExecutor() {
+        final URL resource = Thread.currentThread().getContextClassLoader()
+                .getResource(FIXTURES);
+
+        assertNotNull(resource);
+
+        final File directory = new File(resource.getFile());
+        final ExecutorService executor = CommandExecutors.newVirtualThreadExecutor();
+
+        try {
+            final CommandResult commandResult = DefaultCommandRunner.builder()
+                    .executor(executor)
+                    .build()
+                    .run(directory, JAVA, "PrintHello.java", JACOCO);
+
+            assertEquals(0, commandResult.getResultCode());
+            assertEquals("Hello JaCoCo.\n", commandResult.getResultMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldFallBackToPooledPlatformThreadsWithoutVirtualThreads() {
+        final ExecutorService executor = CommandExecutors.newVirtualThreadExecutor(8);
+
+        try {
+            if (CommandExecutors.isVirtualThreadSupported()) {
+                assertFalse(executor instanceof ThreadPoolExecutor);
+            } else {
+                assertEquals(8, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldCreateElasticThreadExecutor() {
+        final ThreadPoolExecutor executor = (ThreadPoolExecutor) CommandExecutors
+                .newElasticThreadExecutor(4);
+
+        try {
+            assertEquals(4, executor.getMaximumPoolSize());
+            assertTrue(executor.allowsCoreThreadTimeOut());
+            assertDoesNotThrow(() -> executor.submit(() -> null).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRunTasksBeyondPooledThreadsOnOverflowThreads() throws InterruptedException {
+        final ExecutorService executor = CommandExecutors.newElasticThreadExecutor(1);
+        final CountDownLatch started = new CountDownLatch(ELASTIC_TASKS);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            IntStream.range(0, ELASTIC_TASKS).forEach(i -> executor.execute(() -> {
+                started.countDown();
+
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+
+            assertTrue(started.await(FAN_OUT_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertEquals(1, ((ThreadPoolExecutor) executor).getPoolSize());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+    }
+
+    @Test
+    void shouldRejectNonPositivePooledThreads() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandExecutors.newElasticThreadExecutor(0));
+    }
+
+    @Test
+    void shouldNotStallWhenCommandsOutnumberPlatformThreads() {
+        final ExecutorService executor = CommandExecutors
+                .newElasticThreadExecutor(CommandExecutors.DEFAULT_POOLED_PLATFORM_THREADS);
+        final CountDownLatch feeding = new CountDownLatch(FAN_OUT_COMMANDS);
+        final DefaultCommandRunner commandRunner = DefaultCommandRunner.builder()
+                .executor(executor)
+                .outputMode(OutputMode.SEPARATE)
+                .timeoutValue(FAN_OUT_TIMEOUT_SECONDS)
+                .timeoutUnit(TimeUnit.SECONDS)
+                .build();
+
+        try {
+            final List<CompletableFuture<CommandResult>> futures = IntStream
+                    .range(0, FAN_OUT_COMMANDS)
+                    .mapToObj(i -> commandRunner.runAsync(null,
+                            StdinSource.inputStream(new GatedInputStream(feeding)), "cat"))
+                    .collect(Collectors.toList());
+
+            futures.stream().map(CompletableFuture::join).forEach(commandResult -> {
+                assertFalse(commandResult.isTimedOut());
+                assertEquals(List.of(GatedInputStream.LINE), commandResult.getOutputLines());
+            });
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static final class GatedInputStream extends InputStream {
+
+        private static final String LINE = "fed";
+
+        private final CountDownLatch feeding;
+        private final InputStream lines = new ByteArrayInputStream((LINE + "\n").getBytes());
+        private boolean started;
+
+        private GatedInputStream(final CountDownLatch feeding) {
+            this.feeding = feeding;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] bytes = new byte[1];
+
+            return read(bytes, 0, 1) < 0 ? -1 : bytes[0];
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length)
+                throws IOException {
+            if (!started) {
+                started = true;
+                feeding.countDown();
+
+                try {
+                    if (!feeding.await(FAN_OUT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                        throw new IOException("Not every feeder was running.");
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    throw new IOException(e);
+                }
+            }
+
+            return lines.read(bytes, offset, length);
+        }
+    }
+}
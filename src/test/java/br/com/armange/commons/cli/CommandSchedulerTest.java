@@ -0,0 +1,181 @@
+package br.com.armange.commons.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandSchedulerTest {
+
+    @Test
+    void shouldLimitCommandsInFlight() {
+        final BlockingCommandRunner commandRunner = new BlockingCommandRunner();
+
+        try (final CommandScheduler scheduler = CommandScheduler.builder()
+                .commandRunner(commandRunner)
+                .maxInFlight(2)
+                .build()) {
+            final List<CompletableFuture<CommandResult>> futures = List.of(
+                    scheduler.runAsync("first"),
+                    scheduler.runAsync("second"),
+                    scheduler.runAsync("third"));
+
+            assertTrue(commandRunner.awaitRunning(2));
+            assertEquals(2, commandRunner.maxRunning.get());
+            assertEquals(1, scheduler.getQueuedCount());
+
+            commandRunner.release.countDown();
+            futures.forEach(future -> assertEquals(0, future.join().getResultCode()));
+            assertEquals(2, commandRunner.maxRunning.get());
+            assertEquals(3, scheduler.getCompletedCount());
+        }
+    }
+
+    @Test
+    void shouldRunHigherPriorityCommandsFirst() {
+        final BlockingCommandRunner commandRunner = new BlockingCommandRunner();
+
+        try (final CommandScheduler scheduler = CommandScheduler.builder()
+                .commandRunner(commandRunner)
+                .maxInFlight(1)
+                .build()) {
+            final CompletableFuture<ScheduledCommandResult> blocker = scheduler
+                    .submit(CommandScheduler.Priority.NORMAL, null, null, "blocker");
+
+            assertTrue(commandRunner.awaitRunning(1));
+
+            final CompletableFuture<ScheduledCommandResult> low = scheduler
+                    .submit(CommandScheduler.Priority.LOW, null, null, "low");
+            final CompletableFuture<ScheduledCommandResult> high = scheduler
+                    .submit(CommandScheduler.Priority.HIGH, null, null, "high");
+
+            commandRunner.release.countDown();
+            CompletableFuture.allOf(blocker, low, high).join();
+
+            assertThat(commandRunner.commands, contains("blocker", "high", "low"));
+            assertEquals(CommandScheduler.Priority.LOW, low.join().getPriority());
+            assertFalse(low.join().getQueueTime().isNegative());
+            assertFalse(low.join().getRunTime().isNegative());
+        }
+    }
+
+    @Test
+    void shouldRejectCommandsWhenQueueIsFull() {
+        final BlockingCommandRunner commandRunner = new BlockingCommandRunner();
+
+        try (final CommandScheduler scheduler = CommandScheduler.builder()
+                .commandRunner(commandRunner)
+                .maxInFlight(1)
+                .queueCapacity(1)
+                .rejectionPolicy(CommandScheduler.RejectionPolicy.ABORT)
+                .build()) {
+            scheduler.runAsync("running");
+
+            assertTrue(commandRunner.awaitRunning(1));
+
+            scheduler.runAsync("queued");
+
+            assertThrows(RejectedExecutionException.class, () -> scheduler.runAsync("rejected"));
+            assertEquals(1, scheduler.getRejectedCount());
+
+            commandRunner.release.countDown();
+        }
+    }
+
+    @Test
+    void shouldRejectBlockedAndLaterSubmissionsOnClose() throws InterruptedException {
+        final BlockingCommandRunner commandRunner = new BlockingCommandRunner();
+        final CommandScheduler scheduler = CommandScheduler.builder()
+                .commandRunner(commandRunner)
+                .maxInFlight(1)
+                .queueCapacity(1)
+                .rejectionPolicy(CommandScheduler.RejectionPolicy.BLOCK)
+                .build();
+
+        scheduler.runAsync("running");
+
+        assertTrue(commandRunner.awaitRunning(1));
+
+        final CompletableFuture<CommandResult> queued = scheduler.runAsync("queued");
+        final CompletableFuture<RuntimeException> blocked = new CompletableFuture<>();
+        final Thread submitter = new Thread(() -> blocked.complete(
+                assertThrows(RejectedExecutionException.class,
+                        () -> scheduler.runAsync("blocked"))));
+
+        submitter.start();
+
+        while (submitter.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+
+        scheduler.close();
+        submitter.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertTrue(blocked.isDone());
+        assertThrows(CompletionException.class, queued::join);
+        assertThrows(RejectedExecutionException.class, () -> scheduler.runAsync("late"));
+    }
+
+    private static final class BlockingCommandRunner implements CommandRunner {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final List<String> commands = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CommandResult run(final String... command) {
+            return run(null, null, command);
+        }
+
+        @Override
+        public CommandResult run(final List<String> outputLines, final String... command) {
+            return run(null, outputLines, command);
+        }
+
+        @Override
+        public CommandResult run(final File directory, final String... command) {
+            return run(directory, null, command);
+        }
+
+        @Override
+        public CommandResult run(final File directory,
+                                 final List<String> outputLines,
+                                 final String... command) {
+            commands.add(command[0]);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+
+            return DefaultCommandResult.newDefaultCommandResult(0, Collections.emptyList());
+        }
+
+        private boolean awaitRunning(final int expected) {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+            while (running.get() < expected && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+
+            return running.get() >= expected;
+        }
+    }
+}
@@ -2,22 +2,27 @@ package br.com.armange.commons.cli;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class DefaultCommandResultTest {
 
     public static final String LINE_1 = "Line1";
     public static final String LINE_2 = "Line2";
     public static final List<String> RESULT_LINES = Arrays.asList(LINE_1, LINE_2);
+    public static final int ADDITIONAL_MESSAGES = 10_000;
 
     @Test
     void shouldGetResultMessage() {
@@ -60,4 +65,51 @@ class DefaultCommandResultTest {
         assertNotNull(commandResult.stream());
         assertThat(commandResult.stream().collect(Collectors.toList()), hasSize(0));
     }
+
+    @Test
+    void shouldCacheResultMessageUntilAdditionalMessageIsAppended() {
+        final DefaultCommandResult commandResult = DefaultCommandResult.
+                newDefaultCommandResult(0, RESULT_LINES);
+        final String resultMessage = commandResult.getResultMessage();
+
+        assertSame(resultMessage, commandResult.getResultMessage());
+
+        commandResult.appendAdditionalMessage(LINE_1);
+
+        assertEquals("Line1\nLine2\nLine1", commandResult.getResultMessage());
+        assertSame(commandResult.getResultMessage(), commandResult.getResultMessage());
+    }
+
+    @Test
+    void shouldExposeResultMessageAsCharSequenceAndReader() throws IOException {
+        final DefaultCommandResult commandResult = DefaultCommandResult.
+                newDefaultCommandResult(0, RESULT_LINES);
+
+        commandResult.appendAdditionalMessage(LINE_2);
+
+        final CharSequence charSequence = commandResult.getResultCharSequence();
+
+        assertEquals(commandResult.getResultMessage(), charSequence.toString());
+        assertEquals("2\nLine2", charSequence.subSequence(10, 17).toString());
+        assertEquals('L', charSequence.charAt(12));
+
+        try (final BufferedReader reader = new BufferedReader(commandResult.getResultReader())) {
+            assertEquals(List.of(LINE_1, LINE_2, LINE_2),
+                    reader.lines().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void shouldAppendManyAdditionalMessages() {
+        final DefaultCommandResult commandResult = DefaultCommandResult.
+                newDefaultCommandResult(0, Collections.emptyList());
+
+        commandResult.appendAdditionalMessage(" ");
+        IntStream.range(0, ADDITIONAL_MESSAGES)
+                .forEach(i -> commandResult.appendAdditionalMessage(LINE_1));
+
+        assertEquals(ADDITIONAL_MESSAGES * (LINE_1.length() + 1) - 1,
+                commandResult.getAdditionalMessage().length());
+        assertEquals(commandResult.getAdditionalMessage(), commandResult.getResultMessage());
+    }
 }
@@ -2,18 +2,40 @@ package br.com.armange.commons.cli;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.io.UncheckedIOException;
 import java.net.URL;
+import java.nio.channels.Channels;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -24,6 +46,15 @@ class DefaultCommandRunnerTest {
     public static final String JACOCO = "JaCoCo";
     public static final String PRINT_HELLO = "PrintHello.java";
     public static final String FIXTURES = "fixtures";
+    public static final String PRINT_HELLO_WITH_DELAY = "PrintHelloWithDelay.java";
+    public static final int CONCURRENT_COMMANDS = 4;
+    public static final long DELAY_MILLIS = 3000;
+    public static final long PARALLEL_BOUND_MILLIS = 2 * DELAY_MILLIS;
+    public static final String PRINT_HELLO_AFTER_DELAY = "sleep " + DELAY_MILLIS / 1000
+            + " && echo Hello JaCoCo.";
+    public static final int LARGE_OUTPUT_LINES = 50_000;
+    public static final int LARGE_INPUT_LINES = 200_000;
+    public static final String BROKEN_SOURCE = "broken source";
 
     @Test
     void shouldRunCommandWithBaseDirectoryAndWithoutOutputLines() {
@@ -130,11 +161,9 @@ class DefaultCommandRunnerTest {
                 .runCmd(directory,
                         JAVA, "AskName.java");
 
-        assertEquals(1, commandResult.getResultCode());
-        assertEquals("java.io.IOException: Stream closed\n" +
-                        "java.io.IOException: Stream closed\n" +
-                        "An internal error occurred and the last action could not be completed.",
-                commandResult.getResultMessage());
+        assertEquals(Termination.TIMED_OUT, commandResult.getTermination());
+        assertThat(commandResult.getResultMessage(), endsWith(
+                "An internal error occurred and the last action could not be completed."));
     }
 
     @Test
@@ -179,7 +208,7 @@ class DefaultCommandRunnerTest {
             doThrow(InterruptedException.class).when(process).waitFor(anyLong(), any());
 
             return process;
-        }).when(commandRunner).startProcess(any(), any(), any());
+        }).when(commandRunner).startProcess(any(), any());
 
         assertThrows(IllegalStateException.class,
                 () -> commandRunner.run(directory, JAVA, PRINT_HELLO, JACOCO));
@@ -196,7 +225,7 @@ class DefaultCommandRunnerTest {
         final DefaultCommandRunner commandRunner = spy(new DefaultCommandRunner());
 
         doAnswer(i -> {
-            final Process process = spy((Process) i.callRealMethod());
+            final Process process = exitAwareSpy((Process) i.callRealMethod());
 
             doAnswer(j -> {
                 final InputStream inputStream = spy((InputStream) j.callRealMethod());
@@ -207,11 +236,12 @@ class DefaultCommandRunnerTest {
             }).when(process).getInputStream();
 
             return process;
-        }).when(commandRunner).startProcess(any(), any(), any());
+        }).when(commandRunner).startProcess(any(), any());
 
         final CommandResult commandResult = commandRunner.run(directory, JAVA, PRINT_HELLO, JACOCO);
 
-        assertEquals(1, commandResult.getResultCode());
+        assertEquals(0, commandResult.getResultCode());
+        assertFalse(commandResult.isTimedOut());
     }
 
     @Test
@@ -225,7 +255,7 @@ class DefaultCommandRunnerTest {
         final DefaultCommandRunner commandRunner = spy(new DefaultCommandRunner());
 
         doAnswer(i -> {
-            final Process process = spy((Process) i.callRealMethod());
+            final Process process = exitAwareSpy((Process) i.callRealMethod());
 
             doAnswer(j -> {
                 final InputStream inputStream = spy((InputStream) j.callRealMethod());
@@ -236,11 +266,795 @@ class DefaultCommandRunnerTest {
             }).when(process).getErrorStream();
 
             return process;
-        }).when(commandRunner).startProcess(any(), any(), any());
+        }).when(commandRunner).startProcess(any(), any());
 
         final CommandResult commandResult = commandRunner
                 .run(directory, JAVA, PRINT_HELLO, JACOCO);
 
-        assertEquals(1, commandResult.getResultCode());
+        assertEquals(0, commandResult.getResultCode());
+        assertFalse(commandResult.isTimedOut());
+    }
+
+    @Test
+    void shouldRunCommandsConcurrently() throws Exception {
+        final URL resource = Thread.currentThread().getContextClassLoader()
+                .getResource(FIXTURES);
+
+        assertNotNull(resource);
+
+        final File directory = new File(resource.getFile());
+        final ExecutorService executorService = Executors.newFixedThreadPool(CONCURRENT_COMMANDS);
+        final List<Future<CommandResult>> futures = new ArrayList<>();
+        final long start = System.nanoTime();
+
+        try {
+            for (int i = 0; i < CONCURRENT_COMMANDS; i++) {
+                futures.add(executorService.submit(() -> DefaultCommandRunner
+                        .runCmd(directory, "sh", "-c", PRINT_HELLO_AFTER_DELAY)));
+            }
+
+            for (final Future<CommandResult> future : futures) {
+                final CommandResult commandResult = future.get();
+
+                assertEquals(0, commandResult.getResultCode());
+                assertEquals("Hello JaCoCo.\n", commandResult.getResultMessage());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < PARALLEL_BOUND_MILLIS,
+                "Commands did not run in parallel: " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void shouldDrainLargeOutputWithoutBlockingTheProcess() {
+        final URL resource = Thread.currentThread().getContextClassLoader()
+                .getResource(FIXTURES);
+
+        assertNotNull(resource);
+
+        final File directory = new File(resource.getFile());
+        final CommandResult commandResult = DefaultCommandRunner
+                .runCmd(directory, JAVA, "PrintLargeOutput.java",
+                        String.valueOf(LARGE_OUTPUT_LINES));
+
+        assertEquals(0, commandResult.getResultCode());
+        assertEquals(LARGE_OUTPUT_LINES, commandResult.getResultLines().size());
+        assertEquals("", commandResult.getAdditionalMessage());
+    }
+
+    @Test
+    void shouldRunCommandsAsynchronously() {
+        final URL resource = Thread.currentThread().getContextClassLoader()
+                .getResource(FIXTURES);
+
+        assertNotNull(resource);
+
+        final File directory = new File(resource.getFile());
+        final AsyncCommandRunner commandRunner = new DefaultCommandRunner();
+        final long start = System.nanoTime();
+        final List<CompletableFuture<CommandResult>> futures = IntStream
+                .range(0, CONCURRENT_COMMANDS)
+                .mapToObj(i -> commandRunner.runAsync(directory, "sh", "-c",
+                        PRINT_HELLO_AFTER_DELAY))
+                .collect(Collectors.toList());
+        final List<CommandResult> commandResults = CompletableFuture
+                .allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(unused -> futures.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.toList()))
+                .join();
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(CONCURRENT_COMMANDS, commandResults.size());
+        commandResults.forEach(commandResult -> {
+            assertEquals(0, commandResult.getResultCode());
+            assertEquals("Hello JaCoCo.\n", commandResult.getResultMessage());
+        });
+        assertTrue(elapsedMillis < PARALLEL_BOUND_MILLIS,
+                "Commands did not run in parallel: " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void shouldDestroyProcessWhenAsynchronousRunIsCancelled() {
+        final URL resource = Thread.currentThread().getContextClassLoader()
+                .getResource(FIXTURES);
+
+        assertNotNull(resource);
+
+        final File directory = new File(resource.getFile());
+        final CompletableFuture<CommandResult> future = new DefaultCommandRunner()
+                .runAsync(directory, JAVA, PRINT_HELLO_WITH_DELAY, JACOCO);
+
+        assertTrue(runningChildren(PRINT_HELLO_WITH_DELAY) > 0);
+        assertTrue(future.cancel(true));
+        assertThrows(CancellationException.class, future::join);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (runningChildren(PRINT_HELLO_WITH_DELAY) > 0) {
+                Thread.sleep(50);
+            }
+        });
+    }
+
+    @Test
+    void shouldCompleteAsynchronousRunWithTimeout() {
+        final URL resource = Thread.currentThread().getContextClassLoader()
+                .getResource(FIXTURES);
+
+        assertNotNull(resource);
+
+        final File directory = new File(resource.getFile());
+        final CommandResult commandResult = new DefaultCommandRunner(
+                null, null, null, 1, TimeUnit.SECONDS)
+                .runAsync(directory, JAVA, PRINT_HELLO_WITH_DELAY, JACOCO)
+                .join();
+
+        assertTrue(commandResult.isTimedOut());
+        assertThat(commandResult.getResultMessage(), endsWith(
+                "An internal error occurred and the last action could not be completed."));
+    }
+
+    @Test
+    void shouldCaptureOnlyTailLinesAndReportDroppedOutput() {
+        final URL resource = Thread.currentThread().getContextClassLoader()
+                .getResource(FIXTURES);
+
+        assertNotNull(resource);
+
+        final File directory = new File(resource.getFile());
+        final CommandResult commandResult = DefaultCommandRunner.builder()
+                .capturePolicy(CapturePolicy.tailLines(10))
+                .build()
+                .run(directory, JAVA, "PrintLargeOutput.java",
+                        String.valueOf(LARGE_OUTPUT_LINES));
+
+        assertEquals(0, commandResult.getResultCode());
+        assertEquals(10, commandResult.getResultLines().size());
+        assertEquals(LARGE_OUTPUT_LINES - 10, commandResult.getDroppedLines());
+        assertEquals((LARGE_OUTPUT_LINES - 10) * 101L, commandResult.getDroppedBytes());
+        assertTrue(commandResult.isTruncated());
+    }
+
+    @Test
+    void shouldRunPipelineThroughOsPipes() {
+        final PipelineCommandResult commandResult = new DefaultCommandRunner().runPipeline(List.of(
+                List.of("printf", "c\\nb\\na\\n"),
+                List.of("sort"),
+                List.of("head", "-n", "2")));
+
+        assertEquals(0, commandResult.getResultCode());
+        assertEquals("a\nb\n", commandResult.getResultMessage());
+        assertEquals(List.of(0, 0, 0), commandResult.getStageResultCodes());
+    }
+
+    @Test
+    void shouldFeedOutputLinesToFirstPipelineStage() {
+        final PipelineCommandResult commandResult = new DefaultCommandRunner().runPipeline(null,
+                List.of("b", "a"),
+                List.of(List.of("sort"), List.of("cat")));
+
+        assertEquals(0, commandResult.getResultCode());
+        assertEquals("a\nb\n", commandResult.getResultMessage());
+    }
+
+    @Test
+    void shouldReportRightmostFailingPipelineStage() {
+        final PipelineCommandResult commandResult = new DefaultCommandRunner().runPipeline(List.of(
+                List.of("echo", JACOCO),
+                List.of("sh", "-c", "cat; exit 3"),
+                List.of("cat")));
+
+        assertEquals(3, commandResult.getResultCode());
+        assertEquals(List.of(0, 3, 0), commandResult.getStageResultCodes());
+        assertEquals("JaCoCo\n", commandResult.getResultMessage());
+    }
+
+    @Test
+    void shouldDestroyWholePipelineOnTimeout() {
+        final PipelineCommandResult commandResult = new DefaultCommandRunner(
+                null, null, null, 1, TimeUnit.SECONDS)
+                .runPipeline(List.of(List.of("sleep", "30"), List.of("cat")));
+
+        assertTrue(commandResult.isTimedOut());
+        assertEquals(143, commandResult.getStageResultCodes().get(0));
+        assertThat(commandResult.getResultMessage(), endsWith(
+                "An internal error occurred and the last action could not be completed."));
+    }
+
+    @Test
+    void shouldSpendOneGracePeriodTerminatingPipeline() {
+        final long start = System.nanoTime();
+        final PipelineCommandResult commandResult = DefaultCommandRunner.builder()
+                .timeoutValue(1)
+                .gracePeriod(Duration.ofSeconds(2))
+                .build()
+                .runPipeline(List.of(List.of("sh", "-c", "(sleep 32 &); trap '' TERM; sleep 32"),
+                        List.of("cat")));
+
+        assertTrue(commandResult.isTimedOut());
+        assertEquals(137, commandResult.getStageResultCodes().get(0));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(4500));
+    }
+
+    @Test
+    void shouldStopPipelineThatStopsProducingOutput() {
+        final long start = System.nanoTime();
+        final PipelineCommandResult commandResult = DefaultCommandRunner.builder()
+                .idleTimeout(Duration.ofMillis(500))
+                .build()
+                .runPipeline(List.of(List.of("sh", "-c", "echo started; sleep 30"),
+                        List.of("cat")));
+
+        assertEquals(Termination.IDLE_TIMED_OUT, commandResult.getTermination());
+        assertEquals("started", commandResult.getResultLines().get(0));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void shouldCopyBinaryOutputToOutputStream() {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final ByteCommandResult commandResult = new DefaultCommandRunner()
+                .runBytes(null, null, target, "printf", "\\000\\377\\n\\001");
+
+        assertEquals(0, commandResult.getResultCode());
+        assertEquals(4, commandResult.getByteCount());
+        assertArrayEquals(new byte[]{0, (byte) 0xff, '\n', 1}, target.toByteArray());
+        assertEquals("", commandResult.getResultMessage());
+    }
+
+    @Test
+    void shouldTransferOutputToFileAndCaptureErrorsSeparately() throws IOException {
+        final Path target = Files.createTempFile(null, null);
+        final ByteCommandResult commandResult = new DefaultCommandRunner()
+                .runBytes(null, null, target, "sh", "-c",
+                        "head -c 3000000 /dev/zero; echo failure >&2");
+
+        assertEquals(0, commandResult.getResultCode());
+        assertEquals(3_000_000, commandResult.getByteCount());
+        assertEquals(3_000_000, Files.size(target));
+        assertEquals("failure\n", commandResult.getResultMessage());
+    }
+
+    @Test
+    void shouldTraceAndIdleTimeOutByteTransfers() {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final CommandListener listener = new CommandListener() {
+            @Override
+            public void onFirstOutput(final CommandTrace trace) {
+                events.add("first output");
+            }
+
+            @Override
+            public void onExited(final CommandTrace trace) {
+                events.add("exited " + trace.getTermination() + " " + trace.getBytesRead());
+            }
+        };
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final ByteCommandResult commandResult = DefaultCommandRunner.builder()
+                .listener(listener)
+                .idleTimeout(Duration.ofMillis(500))
+                .gracePeriod(Duration.ofMillis(200))
+                .build()
+                .runBytes(null, null, target, "sh", "-c", "printf abc; exec sleep 30");
+
+        assertEquals(Termination.IDLE_TIMED_OUT, commandResult.getTermination());
+        assertArrayEquals("abc".getBytes(), target.toByteArray());
+        assertEquals(List.of("first output", "exited IDLE_TIMED_OUT 3"), events);
+    }
+
+    @Test
+    void shouldFeedLargeInputWhileDrainingOutput() {
+        final Stream<String> lines = IntStream.range(0, LARGE_INPUT_LINES)
+                .mapToObj(Integer::toString);
+        final CommandResult commandResult = new DefaultCommandRunner()
+                .run(null, StdinSource.lines(lines), "cat");
+
+        assertEquals(0, commandResult.getResultCode());
+        assertEquals(LARGE_INPUT_LINES, commandResult.getResultLines().size());
+        assertEquals(Integer.toString(LARGE_INPUT_LINES - 1),
+                commandResult.getResultLines().get(LARGE_INPUT_LINES - 1));
+    }
+
+    @Test
+    void shouldFeedInputFromStreamAndChannel() {
+        final DefaultCommandRunner commandRunner = DefaultCommandRunner.builder()
+                .flushPolicy(FlushPolicy.EACH_LINE)
+                .build();
+        final CommandResult streamResult = commandRunner
+                .run(null, StdinSource.lines(Stream.of("Green", "Day")), "cat");
+        final CommandResult channelResult = commandRunner.run(null,
+                StdinSource.channel(Channels.newChannel(
+                        new ByteArrayInputStream("Green\nDay\n".getBytes()))),
+                "cat");
+
+        assertEquals("Green\nDay\n", streamResult.getResultMessage());
+        assertEquals("Green\nDay\n", channelResult.getResultMessage());
+    }
+
+    @Test
+    void shouldFeedInputFromPathAsynchronously() throws IOException {
+        final Path source = Files.createTempFile(null, null);
+
+        Files.write(source, List.of("Green", "Day"));
+
+        final CommandResult commandResult = new DefaultCommandRunner()
+                .runAsync(null, StdinSource.path(source), "cat")
+                .join();
+
+        assertEquals(0, commandResult.getResultCode());
+        assertEquals(List.of("Green", "Day"), commandResult.getResultLines());
+        assertEquals("", commandResult.getAdditionalMessage());
+    }
+
+    @Test
+    void shouldReportUnreadableInputSource() {
+        final CommandResult commandResult = new DefaultCommandRunner().run(null,
+                StdinSource.path(Path.of("does-not-exist")), "cat");
+
+        assertEquals(0, commandResult.getResultCode());
+        assertThat(commandResult.getResultMessage(), endsWith("does-not-exist"));
+    }
+
+    @Test
+    void shouldNotWaitForBlockedInputSourceAfterExit() throws IOException {
+        final long start = System.nanoTime();
+
+        try (final PipedOutputStream pipedOutputStream = new PipedOutputStream();
+             final PipedInputStream pipedInputStream = new PipedInputStream(pipedOutputStream)) {
+            final CommandResult commandResult = DefaultCommandRunner.builder()
+                    .timeoutValue(3)
+                    .build()
+                    .run(null, StdinSource.inputStream(pipedInputStream), "sh", "-c",
+                            "echo done");
+
+            assertFalse(commandResult.isTimedOut());
+            assertEquals(List.of("done"), commandResult.getResultLines());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        }
+    }
+
+    @Test
+    void shouldReportFailingInputSource() {
+        final Stream<String> lines = Stream.of(JACOCO).map(line -> {
+            throw new IllegalStateException(BROKEN_SOURCE);
+        });
+        final CommandResult commandResult = new DefaultCommandRunner()
+                .run(null, StdinSource.lines(lines), "cat");
+
+        assertEquals(0, commandResult.getResultCode());
+        assertFalse(commandResult.isTimedOut());
+        assertThat(commandResult.getResultMessage(), endsWith(BROKEN_SOURCE));
+    }
+
+    @Test
+    void shouldStopCommandThatStopsProducingOutput() {
+        final long start = System.nanoTime();
+        final CommandResult commandResult = DefaultCommandRunner.builder()
+                .idleTimeout(Duration.ofMillis(500))
+                .build()
+                .run("sh", "-c", "echo started; sleep 30");
+
+        assertEquals(Termination.IDLE_TIMED_OUT, commandResult.getTermination());
+        assertEquals("started", commandResult.getResultLines().get(0));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void shouldKillProcessTreeIgnoringTerminationAfterGracePeriod() {
+        final long start = System.nanoTime();
+        final CommandResult commandResult = DefaultCommandRunner.builder()
+                .timeoutValue(1)
+                .gracePeriod(Duration.ofMillis(500))
+                .build()
+                .run("sh", "-c", "trap '' TERM; sleep 31 & sleep 31");
+
+        assertTrue(commandResult.isTimedOut());
+        assertEquals(137, commandResult.getResultCode());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(0, ProcessHandle.allProcesses()
+                .filter(ProcessHandle::isAlive)
+                .filter(handle -> handle.info().commandLine()
+                        .map(commandLine -> commandLine.contains("sleep 31"))
+                        .orElse(false))
+                .count());
+    }
+
+    @Test
+    void shouldReturnAtDeadlineWhenOrphanKeepsOutputOpen() {
+        final long start = System.nanoTime();
+        final CommandResult commandResult = DefaultCommandRunner.builder()
+                .timeoutValue(1)
+                .gracePeriod(Duration.ofMillis(500))
+                .build()
+                .run("sh", "-c", "sleep 30 & echo started; sleep 0.2");
+
+        assertTrue(commandResult.isTimedOut());
+        assertEquals(0, commandResult.getResultCode());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void shouldNotifyListenerOfExecutionEvents() {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final CommandListener listener = new CommandListener() {
+            @Override
+            public void onQueued(final CommandTrace trace) {
+                events.add("queued");
+            }
+
+            @Override
+            public void onStarted(final CommandTrace trace) {
+                events.add("started " + (trace.getPid() > 0));
+            }
+
+            @Override
+            public void onFirstOutput(final CommandTrace trace) {
+                events.add("first output");
+            }
+
+            @Override
+            public void onStdinComplete(final CommandTrace trace) {
+                events.add("stdin " + trace.getLinesWritten() + " " + trace.getBytesWritten());
+            }
+
+            @Override
+            public void onExited(final CommandTrace trace) {
+                events.add("exited " + trace.getResultCode() + " " + trace.getLinesRead()
+                        + " " + trace.getBytesRead());
+            }
+        };
+        final CommandResult commandResult = DefaultCommandRunner.builder()
+                .listener(listener)
+                .build()
+                .run(null, List.of("Green", "Day"), "cat");
+
+        assertEquals(0, commandResult.getResultCode());
+        assertEquals(List.of("queued", "started true"), events.subList(0, 2));
+        assertTrue(events.contains("first output"));
+        assertTrue(events.contains("stdin 2 10"));
+        assertEquals("exited 0 2 10", events.get(events.size() - 1));
+    }
+
+    @Test
+    void shouldRecordTimingsAndTimeoutsInHistogram() {
+        final HistogramCommandListener listener = new HistogramCommandListener();
+        final DefaultCommandRunner commandRunner = DefaultCommandRunner.builder()
+                .listener(listener)
+                .timeoutValue(1)
+                .gracePeriod(Duration.ofMillis(200))
+                .build();
+
+        commandRunner.run("echo", JACOCO);
+        commandRunner.run("sh", "-c", "trap '' TERM; sleep 5");
+
+        assertEquals(2, listener.getLatency().getCount());
+        assertEquals(1, listener.getTimedOutCount());
+        assertEquals(1, listener.getKilledCount());
+        assertEquals(JACOCO.length() + 1, listener.getBytesRead());
+        assertTrue(listener.getLatency().getP99().compareTo(Duration.ofSeconds(1)) >= 0);
+        assertTrue(listener.getSpawnLatency().getP50().compareTo(Duration.ZERO) > 0);
+    }
+
+    @Test
+    void shouldCaptureOutputAndErrorSeparately() {
+        final CommandResult commandResult = DefaultCommandRunner.builder()
+                .outputMode(OutputMode.SEPARATE)
+                .build()
+                .run("sh", "-c", "echo output; echo error >&2");
+
+        assertEquals(List.of("output"), commandResult.getOutputLines());
+        assertEquals(List.of("error"), commandResult.getErrorLines());
+        assertEquals(List.of("output", "error"), commandResult.getResultLines());
+        assertTrue(commandResult.getTimeline().isEmpty());
+    }
+
+    @Test
+    void shouldRecordTimelineOfInterleavedStreams() {
+        final CommandResult commandResult = DefaultCommandRunner.builder()
+                .outputMode(OutputMode.TIMELINE)
+                .build()
+                .run("sh", "-c", "echo first; sleep 0.2; echo second >&2; sleep 0.2; echo third");
+        final List<TimelineEntry> timeline = commandResult.getTimeline();
+
+        assertEquals(List.of("first", "second", "third"), timeline.stream()
+                .map(TimelineEntry::getLine)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(OutputSource.STDOUT, OutputSource.STDERR, OutputSource.STDOUT),
+                timeline.stream().map(TimelineEntry::getSource).collect(Collectors.toList()));
+        assertTrue(timeline.get(2).getOffset().compareTo(timeline.get(0).getOffset()) > 0);
+        assertEquals(List.of("first", "third"), commandResult.getOutputLines());
+    }
+
+    @Test
+    void shouldMergeErrorStreamByDefault() {
+        final CommandResult commandResult = new DefaultCommandRunner()
+                .run("sh", "-c", "echo output; echo error >&2");
+
+        assertEquals(List.of("output", "error"), commandResult.getOutputLines());
+        assertTrue(commandResult.getErrorLines().isEmpty());
+    }
+
+    @Test
+    void shouldDriveDialogueWithExpectations() {
+        final URL resource = Thread.currentThread().getContextClassLoader()
+                .getResource(FIXTURES);
+
+        assertNotNull(resource);
+
+        try (final CommandSession session = new DefaultCommandRunner()
+                .startSession(new File(resource.getFile()), JAVA, "AskName.java")) {
+            session.respond(Pattern.compile("What is your name\\?"), JACOCO).join();
+
+            final ExpectMatch match = session
+                    .expect(Duration.ofSeconds(10), Pattern.compile("Hello (.*)\\."))
+                    .join();
+
+            assertEquals(JACOCO, match.group(1));
+            assertEquals(0, session.onExit().join());
+        }
+    }
+
+    @Test
+    void shouldCompleteOnFirstMatchingPatternAndKeepProcessRunning() {
+        try (final CommandSession session = new DefaultCommandRunner()
+                .startSession("sh", "-c", "echo booting; echo ready on 8080; sleep 30")) {
+            final ExpectMatch match = session.expect(Pattern.compile("failed"),
+                    Pattern.compile("ready on (\\d+)")).join();
+
+            assertEquals(1, match.getPatternIndex());
+            assertEquals("8080", match.group(1));
+            assertTrue(session.isAlive());
+        }
+    }
+
+    @Test
+    void shouldTerminateProcessOnMatch() {
+        final CommandSession session = new DefaultCommandRunner()
+                .startSession("sh", "-c", "echo ready; sleep 30");
+
+        assertEquals("ready", session.expectAndClose(Pattern.compile("ready")).join().getLine());
+        assertNotEquals(0, session.onExit().join());
+    }
+
+    @Test
+    void shouldFailExpectationWhenOutputEndsWithoutMatch() {
+        try (final CommandSession session = new DefaultCommandRunner()
+                .startSession("sh", "-c", "echo done")) {
+            final CompletableFuture<ExpectMatch> match = session.expect(Pattern.compile("ready"));
+
+            assertThrows(CompletionException.class, match::join);
+        }
+    }
+
+    @Test
+    void shouldChainExpectationsThroughADialogue() {
+        try (final CommandSession session = new DefaultCommandRunner().startSession("sh", "-c",
+                "read go; echo name?; read name; echo hello $name; read color; "
+                        + "echo $color it is; sleep 30")) {
+            final CompletableFuture<ExpectMatch> dialogue = session.expect(Pattern.compile("name"))
+                    .thenCompose(unused -> session.send(JACOCO)
+                            .respond(Pattern.compile("hello (\\w+)"), "green"))
+                    .thenCompose(greeting -> session.expect(Pattern.compile("(\\w+) it is")));
+
+            session.send("go");
+
+            assertEquals("green", dialogue.join().group(1));
+        }
+    }
+
+    @Test
+    void shouldCloseSessionAtRunnerTimeout() {
+        final CommandSession session = DefaultCommandRunner.builder()
+                .timeoutValue(1)
+                .gracePeriod(Duration.ofMillis(500))
+                .build()
+                .startSession("sh", "-c", "echo ready; sleep 30");
+        final CompletableFuture<ExpectMatch> match = session.expect(Pattern.compile("never"));
+
+        assertThrows(CompletionException.class, match::join);
+        assertNotEquals(0, session.onExit().join());
+        assertTrue(session.isTimedOut());
+    }
+
+    @Test
+    void shouldRejectSessionWithRedirectedOutput() throws IOException {
+        final Path target = Files.createTempFile(null, null);
+        final DefaultCommandRunner commandRunner = new DefaultCommandRunner(null,
+                target.toFile(), null, null, null);
+
+        try {
+            assertThrows(IllegalStateException.class,
+                    () -> commandRunner.startSession("sh", "-c", "echo ready"));
+        } finally {
+            Files.delete(target);
+        }
+    }
+
+    @Test
+    void shouldCompleteTracesOfPipelinesAndSessions() {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final DefaultCommandRunner commandRunner = DefaultCommandRunner.builder()
+                .listener(new CommandListener() {
+                    @Override
+                    public void onStarted(final CommandTrace trace) {
+                        events.add("started " + String.join(" ", trace.getCommand()));
+                    }
+
+                    @Override
+                    public void onExited(final CommandTrace trace) {
+                        events.add("exited " + trace.getLinesRead());
+                    }
+                })
+                .build();
+
+        commandRunner.runPipeline(List.of(List.of("printf", "a\\nb\\n"), List.of("cat")));
+
+        assertEquals(List.of("started printf a\\nb\\n | cat", "exited 2"), events);
+
+        events.clear();
+
+        try (final CommandSession session = commandRunner
+                .startSession("sh", "-c", "echo ready; sleep 30")) {
+            session.expect(Pattern.compile("ready")).join();
+        }
+
+        assertEquals(List.of("started sh -c echo ready; sleep 30", "exited 1"), events);
+    }
+
+    @Test
+    void shouldAddAndRemoveEnvironmentVariables() {
+        final CommandEnvironment environment = CommandEnvironment.inherit()
+                .with("COMMONS_CLI_GREETING", JACOCO)
+                .without("HOME");
+        final CommandResult commandResult = DefaultCommandRunner.builder()
+                .environment(environment)
+                .build()
+                .run("sh", "-c", "echo \"$COMMONS_CLI_GREETING:${HOME:-none}:${PATH:+path}\"");
+
+        assertEquals(List.of(JACOCO + ":none:path"), commandResult.getResultLines());
+        assertEquals(JACOCO, environment.asMap().get("COMMONS_CLI_GREETING"));
+        assertFalse(environment.asMap().containsKey("HOME"));
+        assertFalse(CommandEnvironment.inherit().asMap().containsKey("COMMONS_CLI_GREETING"));
+        assertThrows(UnsupportedOperationException.class, () -> environment.asMap().clear());
+    }
+
+    @Test
+    void shouldRunWithClearedEnvironment() {
+        final CommandResult commandResult = DefaultCommandRunner.builder()
+                .environment(CommandEnvironment.empty().with("ONLY", "value"))
+                .build()
+                .runPipeline(List.of(List.of("env"), List.of("sort")));
+
+        assertEquals(List.of("ONLY=value"), commandResult.getResultLines());
+    }
+
+    @Test
+    void shouldParseRecordsWhileDraining() {
+        final List<Long> sizes = new ArrayList<>();
+        final ByteCommandResult commandResult = new DefaultCommandRunner()
+                .runRecords(RecordParser.whitespace(2), record -> {
+                    sizes.add(record.getLong(0));
+                    assertEquals("file " + record.getLong(0), record.getString(1));
+                }, "sh", "-c", "for i in 1 2 3; do echo \"$i file $i\"; done; "
+                        + "printf '4 file 4'");
+
+        assertEquals(0, commandResult.getResultCode());
+        assertEquals(List.of(1L, 2L, 3L, 4L), sizes);
+        assertEquals(35, commandResult.getByteCount());
+    }
+
+    @Test
+    void shouldReportRecordParsingFailures() {
+        final ByteCommandResult commandResult = new DefaultCommandRunner()
+                .runRecords(RecordParser.jsonLines("id"), record -> {
+                }, "sh", "-c", "echo '{\"id\": 1}'; echo 'not json'");
+
+        assertThat(commandResult.getAdditionalMessage(), containsString("Could not parse line 2"));
+    }
+
+    @Test
+    void shouldSpillLargeOutputToDisk() {
+        try (final SpillingCommandResult commandResult = new DefaultCommandRunner()
+                .runSpilling(1024, "sh", "-c", "seq 1 100000; echo oops >&2")) {
+            assertTrue(commandResult.isSpilled());
+            assertEquals(0, commandResult.getResultCode());
+            assertEquals(100_000, commandResult.getOutputLineCount());
+            assertEquals(100_001, commandResult.getResultLines().size());
+            assertEquals("50000", commandResult.getResultLines().get(49_999));
+            assertEquals(List.of("oops"), commandResult.getErrorLines());
+            assertEquals("oops", commandResult.getResultLines().get(100_000));
+            assertEquals(100_001, commandResult.stream().count());
+            assertTrue(commandResult.getResultMessage().endsWith("99999\n100000\noops\n"));
+        }
+    }
+
+    @Test
+    void shouldKeepSmallOutputInMemoryWhenSpilling() {
+        try (final SpillingCommandResult commandResult = new DefaultCommandRunner()
+                .runSpilling(1024, "echo", "small")) {
+            assertFalse(commandResult.isSpilled());
+            assertEquals(List.of("small"), commandResult.getResultLines());
+            assertEquals("small\n", commandResult.getResultMessage());
+        }
+    }
+
+    @Test
+    void shouldExposeLiveStatusAndCancelRunningCommand() throws InterruptedException {
+        final RunningCommand runningCommand = DefaultCommandRunner.builder()
+                .timeoutUnit(TimeUnit.MINUTES)
+                .gracePeriod(Duration.ofMillis(200))
+                .build()
+                .start("sh", "-c", "echo ready; echo warming >&2; sleep 32");
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (runningCommand.getLinesRead() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(runningCommand.pid() > 0);
+        assertTrue(runningCommand.isAlive());
+        assertTrue(runningCommand.getStartInstant().isPresent());
+        assertFalse(runningCommand.getTotalCpuDuration().isNegative());
+        assertEquals(1, runningCommand.getDescendants().size());
+        assertEquals(List.of("ready", "warming"), runningCommand.getPartialOutputLines());
+        assertTrue(runningCommand.getBytesRead() > 0);
+        assertTrue(runningCommand.getReadRate() > 0);
+        assertFalse(runningCommand.isDone());
+
+        assertTrue(runningCommand.cancel());
+        assertTrue(runningCommand.isDone());
+        assertThrows(CancellationException.class, runningCommand::await);
+        assertFalse(runningCommand.toHandle().onExit().orTimeout(5, TimeUnit.SECONDS).join()
+                .isAlive());
+        assertEquals(0, runningChildren("sleep 32"));
+    }
+
+    @Test
+    void shouldAwaitStartedCommand() {
+        final RunningCommand runningCommand = new DefaultCommandRunner().start("echo", "done");
+
+        assertEquals(List.of("done"), runningCommand.await().getResultLines());
+        assertTrue(runningCommand.isDone());
+        assertFalse(runningCommand.isAlive());
+    }
+
+    @Test
+    void shouldFreezeElapsedTimeAndReadRateOnceCompleted() throws InterruptedException {
+        final MonitoredCommandRunner commandRunner = new DefaultCommandRunner();
+        final RunningCommand runningCommand = commandRunner.start("echo", JACOCO);
+
+        runningCommand.await();
+
+        final Duration elapsed = runningCommand.getElapsed();
+        final double readRate = runningCommand.getReadRate();
+
+        Thread.sleep(50);
+
+        assertEquals(elapsed, runningCommand.getElapsed());
+        assertEquals(readRate, runningCommand.getReadRate());
+        assertTrue(readRate > 0);
+    }
+
+    private static Process exitAwareSpy(final Process process) throws InterruptedException {
+        final Process spiedProcess = spy(process);
+
+        doAnswer(i -> process.onExit()).when(spiedProcess).onExit();
+        doAnswer(i -> process.exitValue()).when(spiedProcess).exitValue();
+        doAnswer(i -> process.waitFor(i.getArgument(0), i.getArgument(1)))
+                .when(spiedProcess).waitFor(anyLong(), any());
+
+        return spiedProcess;
+    }
+
+    private static long runningChildren(final String fixture) {
+        return ProcessHandle.current().children()
+                .filter(ProcessHandle::isAlive)
+                .filter(handle -> handle.info().commandLine()
+                        .map(commandLine -> commandLine.contains(fixture))
+                        .orElse(false))
+                .count();
     }
 }
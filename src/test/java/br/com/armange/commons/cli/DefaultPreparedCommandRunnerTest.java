@@ -0,0 +1,157 @@
+package br.com.armange.commons.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultPreparedCommandRunnerTest {
+
+    public static final String JAVA = "java";
+    public static final String FIXTURES = "fixtures";
+    public static final String TOOL = "commons-cli-prepared-tool";
+
+    @Test
+    void shouldRunPreparedCommandWithArguments() {
+        final PreparedCommandRunner commandRunner = DefaultPreparedCommandRunner
+                .prepare(fixtures(), JAVA, "PrintHello.java", "${name}");
+
+        final CommandResult commandResult = commandRunner.run(Map.of("name", "JaCoCo"));
+
+        assertEquals(0, commandResult.getResultCode());
+        assertEquals("Hello JaCoCo.\n", commandResult.getResultMessage());
+        assertEquals("Hello Green Day.\n", commandRunner.run(Map.of("name", "Green Day"))
+                .getResultMessage());
+    }
+
+    @Test
+    void shouldRunPreparedCommandWithOutputLines() {
+        final PreparedCommandRunner commandRunner = DefaultPreparedCommandRunner
+                .prepare(fixtures(), JAVA, "AskName.java");
+
+        final CommandResult commandResult = commandRunner.run("JaCoCo");
+
+        assertEquals(0, commandResult.getResultCode());
+        assertEquals("What is your name?\nHello JaCoCo.\n", commandResult.getResultMessage());
+    }
+
+    @Test
+    void shouldResolveExecutableAgainstPathOnce() {
+        final String executable = DefaultPreparedCommandRunner.resolveExecutable(JAVA,
+                CommandEnvironment.inherit());
+
+        assertTrue(new File(executable).isAbsolute());
+        assertSame(executable, DefaultPreparedCommandRunner.resolveExecutable(JAVA,
+                CommandEnvironment.inherit()));
+    }
+
+    @Test
+    void shouldResolveExecutableAgainstRunnerPath() throws IOException {
+        final Path directory = Files.createTempDirectory(null);
+        final Path tool = directory.resolve(TOOL);
+
+        Files.writeString(tool, "#!/bin/sh\necho tool\n");
+        assertTrue(tool.toFile().setExecutable(true));
+
+        final DefaultCommandRunner delegate = DefaultCommandRunner.builder()
+                .environment(CommandEnvironment.inherit().with("PATH", directory.toString()))
+                .build();
+
+        assertEquals(List.of("tool"), DefaultPreparedCommandRunner.prepare(delegate, null, TOOL)
+                .run().getResultLines());
+        assertThrows(IllegalArgumentException.class,
+                () -> DefaultPreparedCommandRunner.prepare(TOOL));
+    }
+
+    @Test
+    void shouldRejectUnknownExecutable() {
+        assertThrows(IllegalArgumentException.class, () -> DefaultPreparedCommandRunner
+                .prepare("commons-cli-unknown-executable"));
+    }
+
+    @Test
+    void shouldRejectMissingArgument() {
+        final PreparedCommandRunner commandRunner = DefaultPreparedCommandRunner
+                .prepare(fixtures(), JAVA, "PrintHello.java", "${name}");
+
+        assertThrows(IllegalArgumentException.class, () -> commandRunner.run());
+    }
+
+    @Test
+    void shouldPassACopyOfTheTemplateToTheDelegate() {
+        final List<String> commands = new ArrayList<>();
+        final CommandRunner delegate = new TamperingCommandRunner(commands);
+
+        final PreparedCommandRunner commandRunner = DefaultPreparedCommandRunner
+                .prepare(delegate, null, JAVA, "PrintHello.java");
+
+        commandRunner.run();
+        commandRunner.run();
+
+        assertEquals(commands.get(0), commands.get(1));
+        assertTrue(commands.get(1).endsWith(" PrintHello.java"));
+    }
+
+    @Test
+    void shouldSubstituteOutputLinesThroughDefaultMethod() {
+        final PreparedCommandRunner commandRunner = outputLines -> DefaultCommandResult
+                .newDefaultCommandResult(0, List.of(outputLines));
+
+        assertEquals(List.of("a"), commandRunner.run(Map.of(), "a").getResultLines());
+        assertEquals(List.of("JaCoCo", "b"), commandRunner.run(Map.of("name", "JaCoCo"),
+                "${name}", "b").getResultLines());
+        assertThrows(IllegalArgumentException.class,
+                () -> commandRunner.run(Map.of(), "${name}"));
+    }
+
+    private static File fixtures() {
+        final URL resource = Thread.currentThread().getContextClassLoader()
+                .getResource(FIXTURES);
+
+        assertNotNull(resource);
+
+        return new File(resource.getFile());
+    }
+
+    private static final class TamperingCommandRunner implements CommandRunner {
+
+        private final List<String> commands;
+
+        private TamperingCommandRunner(final List<String> commands) {
+            this.commands = commands;
+        }
+
+        @Override
+        public CommandResult run(final String... command) {
+            return run(null, null, command);
+        }
+
+        @Override
+        public CommandResult run(final List<String> outputLines, final String... command) {
+            return run(null, outputLines, command);
+        }
+
+        @Override
+        public CommandResult run(final File directory, final String... command) {
+            return run(directory, null, command);
+        }
+
+        @Override
+        public CommandResult run(final File directory,
+                                 final List<String> outputLines,
+                                 final String... command) {
+            commands.add(String.join(" ", command));
+            command[1] = "tampered";
+
+            return DefaultCommandResult.newDefaultCommandResult(0, List.of());
+        }
+    }
+}
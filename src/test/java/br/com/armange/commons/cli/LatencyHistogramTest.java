@@ -0,0 +1,51 @@
+package br.com.armange.commons.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    public static final int SAMPLES = 1000;
+
+    @Test
+    void shouldKeepBucketBoundsWithinRelativeError() {
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+            final long upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(value));
+
+            assertTrue(upperBound >= value);
+            assertTrue(upperBound - value <= value / 16);
+        }
+    }
+
+    @Test
+    void shouldReportPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 1; i <= SAMPLES; i++) {
+            histogram.record(Duration.ofMillis(i));
+        }
+
+        assertEquals(SAMPLES, histogram.getCount());
+        assertEquals(Duration.ofMillis(SAMPLES), histogram.getMax());
+        assertEquals(500, histogram.getP50().toMillis(), 500 / 16);
+        assertEquals(990, histogram.getP99().toMillis(), 990 / 16);
+        assertEquals(Duration.ofMillis(SAMPLES), histogram.getPercentile(100));
+    }
+
+    @Test
+    void shouldReportZeroWithoutSamples() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(Duration.ZERO, histogram.getP99());
+        assertEquals(Duration.ZERO, histogram.getMean());
+    }
+
+    @Test
+    void shouldRejectInvalidPercentile() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new LatencyHistogram().getPercentile(101));
+    }
+}
@@ -0,0 +1,165 @@
+package br.com.armange.commons.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputCaptureTest {
+
+    @Test
+    void shouldKeepEveryLineWhenUnbounded() {
+        final OutputCapture outputCapture = CapturePolicy.unbounded().newOutputCapture();
+
+        acceptLines(outputCapture, 5);
+
+        assertThat(outputCapture.lines(), contains("1", "2", "3", "4", "5"));
+        assertEquals(0, outputCapture.getDroppedLines());
+        assertEquals(0, outputCapture.getDroppedBytes());
+    }
+
+    @Test
+    void shouldKeepOnlyHeadLines() {
+        final OutputCapture outputCapture = CapturePolicy.headLines(2).newOutputCapture();
+
+        acceptLines(outputCapture, 5);
+
+        assertThat(outputCapture.lines(), contains("1", "2"));
+        assertEquals(3, outputCapture.getDroppedLines());
+        assertEquals(6, outputCapture.getDroppedBytes());
+    }
+
+    @Test
+    void shouldKeepOnlyTailLines() {
+        final OutputCapture outputCapture = CapturePolicy.tailLines(2).newOutputCapture();
+
+        acceptLines(outputCapture, 5);
+
+        assertThat(outputCapture.lines(), contains("4", "5"));
+        assertEquals(3, outputCapture.getDroppedLines());
+    }
+
+    @Test
+    void shouldKeepHeadAndTailLines() {
+        final OutputCapture outputCapture = CapturePolicy.headAndTailLines(2, 2)
+                .newOutputCapture();
+
+        acceptLines(outputCapture, 9);
+
+        assertThat(outputCapture.lines(), contains("1", "2", "8", "9"));
+        assertEquals(5, outputCapture.getDroppedLines());
+    }
+
+    @Test
+    void shouldGrowTailRingUpToItsLimit() {
+        final OutputCapture outputCapture = CapturePolicy.headAndTailLines(1, 40)
+                .newOutputCapture(true);
+
+        acceptLines(outputCapture, 100);
+
+        final long[] timestamps = outputCapture.timestamps();
+
+        assertEquals(41, outputCapture.lines().size());
+        assertEquals("1", outputCapture.lines().get(0));
+        assertEquals("61", outputCapture.lines().get(1));
+        assertEquals("100", outputCapture.lines().get(40));
+        assertEquals(59, outputCapture.getDroppedLines());
+        assertEquals(41, timestamps.length);
+        assertTrue(IntStream.range(1, timestamps.length)
+                .allMatch(i -> timestamps[i - 1] <= timestamps[i]));
+    }
+
+    @Test
+    void shouldEvictTailLinesToRespectMaxBytes() {
+        final OutputCapture outputCapture = CapturePolicy.tailLines(10).withMaxBytes(6)
+                .newOutputCapture();
+
+        outputCapture.accept("aa");
+        outputCapture.accept("bb");
+        outputCapture.accept("cc");
+        outputCapture.accept("tooLong");
+
+        assertThat(outputCapture.lines(), contains("bb", "cc"));
+        assertEquals(2, outputCapture.getDroppedLines());
+        assertEquals(11, outputCapture.getDroppedBytes());
+    }
+
+    @Test
+    void shouldStopHeadWhenMaxBytesIsReached() {
+        final OutputCapture outputCapture = CapturePolicy.unbounded().withMaxBytes(4)
+                .newOutputCapture();
+
+        outputCapture.accept("a");
+        outputCapture.accept("bbbb");
+        outputCapture.accept("c");
+
+        assertThat(outputCapture.lines(), contains("a"));
+        assertEquals(2, outputCapture.getDroppedLines());
+    }
+
+    @Test
+    void shouldDropEverythingWithEmptyPolicy() {
+        final OutputCapture outputCapture = CapturePolicy.headLines(0).newOutputCapture();
+
+        acceptLines(outputCapture, 3);
+
+        assertThat(outputCapture.lines(), empty());
+        assertEquals(3, outputCapture.getDroppedLines());
+    }
+
+    @Test
+    void shouldKeepTimestampsAlignedWithCapturedLines() {
+        final OutputCapture outputCapture = CapturePolicy.headAndTailLines(1, 2)
+                .newOutputCapture(true);
+
+        acceptLines(outputCapture, 5);
+
+        final long[] timestamps = outputCapture.timestamps();
+
+        assertThat(outputCapture.lines(), contains("1", "4", "5"));
+        assertEquals(3, timestamps.length);
+        assertTrue(timestamps[0] <= timestamps[1] && timestamps[1] <= timestamps[2]);
+    }
+
+    @Test
+    void shouldMergeStreamsIntoTimeline() {
+        final long start = System.nanoTime();
+        final OutputCapture outputs = CapturePolicy.unbounded().newOutputCapture(true);
+        final OutputCapture errors = CapturePolicy.unbounded().newOutputCapture(true);
+
+        outputs.accept("1");
+        errors.accept("2");
+        outputs.accept("3");
+
+        final DefaultCommandResult commandResult = DefaultCommandResult
+                .newDefaultCommandResult(0, outputs, errors, start, Termination.EXITED);
+
+        assertThat(commandResult.getResultLines(), contains("1", "3", "2"));
+        assertThat(commandResult.getOutputLines(), contains("1", "3"));
+        assertThat(commandResult.getErrorLines(), contains("2"));
+        assertThat(commandResult.getTimeline().stream().map(TimelineEntry::getLine)
+                .collect(Collectors.toList()), contains("1", "2", "3"));
+        assertEquals(OutputSource.STDERR, commandResult.getTimeline().get(1).getSource());
+        assertFalse(commandResult.getTimeline().get(0).getOffset().isNegative());
+    }
+
+    @Test
+    void shouldRejectNegativeLimits() {
+        assertThrows(IllegalArgumentException.class, () -> CapturePolicy.headLines(-1));
+        assertThrows(IllegalArgumentException.class, () -> CapturePolicy.tailLines(-1));
+        assertThrows(IllegalArgumentException.class, () -> CapturePolicy.unbounded()
+                .withMaxBytes(-1));
+    }
+
+    private static void acceptLines(final OutputCapture outputCapture, final int count) {
+        IntStream.rangeClosed(1, count).mapToObj(String::valueOf).forEach(outputCapture::accept);
+    }
+}
@@ -0,0 +1,121 @@
+package br.com.armange.commons.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordParserTest {
+
+    public static final int CHUNK_SIZE = 3;
+
+    @Test
+    void shouldSplitDelimitedFieldsAcrossWrites() throws IOException {
+        assertEquals(List.of(List.of("a", "b", ""), List.of("", "c"), List.of("")),
+                parse(RecordParser.delimited(','), "a,b,\r\n,c\n\n"));
+    }
+
+    @Test
+    void shouldUnquoteCsvFields() throws IOException {
+        assertEquals(List.of(List.of("1", "say \"hi\", bye", "x")),
+                parse(RecordParser.csv(), "1,\"say \"\"hi\"\", bye\",x\n"));
+    }
+
+    @Test
+    void shouldSplitWhitespaceColumnsWithRemainder() throws IOException {
+        assertEquals(List.of(List.of("PID", "TTY", "CMD"),
+                        List.of("42", "pts/0", "java -jar app.jar")),
+                parse(RecordParser.whitespace(3),
+                        "  PID TTY   CMD\n   42 pts/0 java -jar app.jar  \n"));
+    }
+
+    @Test
+    void shouldTrimFixedWidthColumns() throws IOException {
+        assertEquals(List.of(List.of("sda1", "100", ""), List.of("tmpfs", "2", "/run")),
+                parse(RecordParser.fixedWidth(6, 5, 10), "sda1  100\ntmpfs     2/run\n"));
+    }
+
+    @Test
+    void shouldMapRegexGroupsToNonAsciiBytes() throws IOException {
+        assertEquals(List.of(List.of("a\u00e7\u00e3o", "1"), List.of()),
+                parse(RecordParser.regex(Pattern.compile("(\\S+) -> (\\d+)")),
+                        "a\u00e7\u00e3o -> 1\nno match\n"));
+    }
+
+    @Test
+    void shouldDecodeSelectedJsonFields() throws IOException {
+        final List<OutputRecord> records = new ArrayList<>();
+        final List<String> values = new ArrayList<>();
+        final RecordChannel recordChannel = new RecordChannel(
+                RecordParser.jsonLines("id", "name", "tags"), record -> {
+                    records.add(record);
+                    values.add(record.getLong(0) + "|" + record.getString(1) + "|"
+                            + record.getString(2) + "|" + record.isPresent(2));
+                });
+
+        write(recordChannel, "{\"id\": 7, \"extra\": {\"a\": [1, \"}\"]}, "
+                + "\"name\": \"tab\\there \\u00e9\", \"tags\": [\"x\"]}\n"
+                + "{\"name\":null,\"id\":-3}\n");
+
+        assertEquals(List.of("7|tab\there \u00e9|[\"x\"]|true", "-3|null|null|false"), values);
+        assertEquals(2, records.get(1).getLineNumber());
+    }
+
+    @Test
+    void shouldParseNumbersWithoutStrings() throws IOException {
+        final List<Long> numbers = new ArrayList<>();
+
+        write(new RecordChannel(RecordParser.whitespace(), record -> {
+            numbers.add(record.getLong(0));
+            numbers.add((long) record.getInt(1));
+            assertEquals(2.5, record.getDouble(2));
+            assertThrows(NumberFormatException.class, () -> record.getLong(2));
+            assertThrows(IndexOutOfBoundsException.class, () -> record.getLong(3));
+        }), "9223372036854775807 -2147483648 2.5\n");
+
+        assertEquals(List.of(Long.MAX_VALUE, (long) Integer.MIN_VALUE), numbers);
+    }
+
+    @Test
+    void shouldReportMalformedLines() {
+        final RecordChannel recordChannel = new RecordChannel(RecordParser.jsonLines("id"),
+                record -> {
+                });
+
+        final IOException exception = assertThrows(IOException.class,
+                () -> write(recordChannel, "{\"id\": 1}\n{\"id\": \n"));
+
+        assertTrue(exception.getMessage().startsWith("Could not parse line 2"));
+    }
+
+    private static List<List<String>> parse(final RecordParser parser,
+                                            final String text) throws IOException {
+        final List<List<String>> records = new ArrayList<>();
+
+        write(new RecordChannel(parser, record -> records.add(IntStream
+                .range(0, record.getFieldCount())
+                .mapToObj(record::getString)
+                .collect(Collectors.toList()))), text);
+
+        return records;
+    }
+
+    private static void write(final RecordChannel recordChannel,
+                              final String text) throws IOException {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 0; i < bytes.length; i += CHUNK_SIZE) {
+            recordChannel.write(ByteBuffer.wrap(bytes, i, Math.min(CHUNK_SIZE, bytes.length - i)));
+        }
+
+        recordChannel.finish();
+    }
+}
@@ -0,0 +1,234 @@
+package br.com.armange.commons.cli;
+
+import br.com.armange.commons.cli.util.DaemonThreadFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientCommandRunnerTest {
+
+    public static final String SH = "sh";
+    public static final String MISSING_BINARY = "commons-cli-missing-binary";
+    public static final String HEDGE_THREAD_PREFIX = "commons-cli-test-hedge-";
+    public static final String COUNT_ATTEMPT = "n=$(cat attempts 2>/dev/null || echo 0); "
+            + "n=$((n+1)); echo $n > attempts; ";
+
+    @Test
+    void shouldRetryUntilCommandSucceeds() throws IOException {
+        final File directory = Files.createTempDirectory(null).toFile();
+        final ResilientCommandRunner commandRunner = ResilientCommandRunner.builder()
+                .commandRunner(new DefaultCommandRunner())
+                .maxAttempts(5)
+                .initialBackoff(Duration.ofMillis(10))
+                .build();
+        final CommandResult commandResult = commandRunner.run(directory, SH, "-c",
+                COUNT_ATTEMPT + "echo attempt $n; [ $n -ge 3 ]");
+
+        assertEquals(0, commandResult.getResultCode());
+        assertEquals(List.of("attempt 3"), commandResult.getResultLines());
+        assertEquals(3, commandRunner.getAttemptCount());
+        assertEquals(2, commandRunner.getRetryCount());
+        assertTrue(commandRunner.getWastedTime().toNanos() > 0);
+    }
+
+    @Test
+    void shouldReturnLastFailureWhenAttemptsAreExhausted() throws IOException {
+        final File directory = Files.createTempDirectory(null).toFile();
+        final ResilientCommandRunner commandRunner = ResilientCommandRunner.builder()
+                .commandRunner(new DefaultCommandRunner())
+                .maxAttempts(2)
+                .initialBackoff(Duration.ofMillis(10))
+                .build();
+        final CommandResult commandResult = commandRunner.run(directory, SH, "-c",
+                COUNT_ATTEMPT + "exit $n");
+
+        assertEquals(2, commandResult.getResultCode());
+        assertEquals(2, commandRunner.getAttemptCount());
+    }
+
+    @Test
+    void shouldOnlyRetryConfiguredCodesAndPatterns() {
+        final ResilientCommandRunner commandRunner = ResilientCommandRunner.builder()
+                .commandRunner(new DefaultCommandRunner())
+                .initialBackoff(Duration.ofMillis(10))
+                .retryableCodes(Set.of(75))
+                .retryPattern(Pattern.compile("temporarily unavailable"))
+                .build();
+
+        assertEquals(2, commandRunner.run(SH, "-c", "exit 2").getResultCode());
+        assertEquals(75, commandRunner.run(SH, "-c", "echo fatal; exit 75").getResultCode());
+        assertEquals(2, commandRunner.getAttemptCount());
+
+        assertEquals(75, commandRunner.run(SH, "-c", "echo temporarily unavailable; exit 75")
+                .getResultCode());
+        assertEquals(5, commandRunner.getAttemptCount());
+    }
+
+    @Test
+    void shouldHedgeSlowCommandAndCancelLoser() throws IOException {
+        final File directory = Files.createTempDirectory(null).toFile();
+        final ResilientCommandRunner commandRunner = ResilientCommandRunner.builder()
+                .commandRunner(new DefaultCommandRunner())
+                .hedgeDelay(Duration.ofMillis(200))
+                .hedgePercentile(95.0)
+                .build();
+        final long startedAt = System.nanoTime();
+        final CommandResult commandResult = commandRunner.run(directory, SH, "-c",
+                COUNT_ATTEMPT + "if [ $n -eq 1 ]; then sleep 30; fi; echo attempt $n");
+
+        assertEquals(List.of("attempt 2"), commandResult.getResultLines());
+        assertTrue(Duration.ofNanos(System.nanoTime() - startedAt).toSeconds() < 10);
+        assertEquals(2, commandRunner.getAttemptCount());
+        assertEquals(1, commandRunner.getHedgeCount());
+        assertEquals(1, commandRunner.getHedgeWinCount());
+        assertEquals(1, commandRunner.getCancelledCount());
+        assertEquals(1, commandRunner.getLatency().getCount());
+    }
+
+    @Test
+    void shouldOnlyRetryExceptionsWhenOptedIn() {
+        final ResilientCommandRunner commandRunner = ResilientCommandRunner.builder()
+                .commandRunner(new DefaultCommandRunner())
+                .initialBackoff(Duration.ofMillis(10))
+                .build();
+
+        assertThrows(RuntimeException.class, () -> commandRunner.run(MISSING_BINARY));
+        assertEquals(1, commandRunner.getAttemptCount());
+
+        final ResilientCommandRunner retryingRunner = ResilientCommandRunner.builder()
+                .commandRunner(new DefaultCommandRunner())
+                .initialBackoff(Duration.ofMillis(10))
+                .retryableException(throwable -> true)
+                .build();
+
+        assertThrows(RuntimeException.class, () -> retryingRunner.run(MISSING_BINARY));
+        assertEquals(3, retryingRunner.getAttemptCount());
+    }
+
+    @Test
+    void shouldLaunchHedgeOnExecutor() {
+        final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        final ExecutorService executor = Executors.newSingleThreadExecutor(
+                new DaemonThreadFactory(HEDGE_THREAD_PREFIX));
+
+        try {
+            final ResilientCommandRunner commandRunner = ResilientCommandRunner.builder()
+                    .commandRunner(new HangingFirstCommandRunner(threads))
+                    .hedgeDelay(Duration.ofMillis(50))
+                    .executor(executor)
+                    .build();
+
+            assertEquals(0, commandRunner.run(SH, "-c", "true").getResultCode());
+            assertEquals(2, threads.size());
+            assertTrue(threads.get(1).startsWith(HEDGE_THREAD_PREFIX));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldOnlySampleSuccessfulLatencies() {
+        final ResilientCommandRunner commandRunner = ResilientCommandRunner.builder()
+                .commandRunner(new FailingCommandRunner())
+                .retryableCodes(Set.of(75))
+                .hedgeDelay(Duration.ofSeconds(30))
+                .hedgePercentile(95.0)
+                .build();
+
+        for (int i = 0; i < ResilientCommandRunner.MIN_HEDGE_SAMPLES; i++) {
+            assertEquals(2, commandRunner.run(SH, "-c", "exit 2").getResultCode());
+        }
+
+        assertEquals(0, commandRunner.getLatency().getCount());
+        assertEquals(0, commandRunner.getHedgeCount());
+    }
+
+    @Test
+    void shouldRejectInvalidSettings() {
+        final ResilientCommandRunner.ResilientCommandRunnerBuilder builder =
+                ResilientCommandRunner.builder().commandRunner(new DefaultCommandRunner());
+
+        assertThrows(IllegalArgumentException.class, () -> builder.maxAttempts(0).build());
+        assertThrows(IllegalArgumentException.class, () -> builder.maxAttempts(1).jitter(2.0)
+                .build());
+    }
+
+    private static final class FailingCommandRunner implements AsyncCommandRunner {
+
+        @Override
+        public CompletableFuture<CommandResult> runAsync(final String... command) {
+            return runAsync(null, null, command);
+        }
+
+        @Override
+        public CompletableFuture<CommandResult> runAsync(final List<String> outputLines,
+                                                         final String... command) {
+            return runAsync(null, outputLines, command);
+        }
+
+        @Override
+        public CompletableFuture<CommandResult> runAsync(final File directory,
+                                                         final String... command) {
+            return runAsync(directory, null, command);
+        }
+
+        @Override
+        public CompletableFuture<CommandResult> runAsync(final File directory,
+                                                         final List<String> outputLines,
+                                                         final String... command) {
+            return CompletableFuture.completedFuture(DefaultCommandResult
+                    .newDefaultCommandResult(2, List.of()));
+        }
+    }
+
+    private static final class HangingFirstCommandRunner implements AsyncCommandRunner {
+
+        private final List<String> threads;
+
+        private HangingFirstCommandRunner(final List<String> threads) {
+            this.threads = threads;
+        }
+
+        @Override
+        public CompletableFuture<CommandResult> runAsync(final String... command) {
+            return runAsync(null, null, command);
+        }
+
+        @Override
+        public CompletableFuture<CommandResult> runAsync(final List<String> outputLines,
+                                                         final String... command) {
+            return runAsync(null, outputLines, command);
+        }
+
+        @Override
+        public CompletableFuture<CommandResult> runAsync(final File directory,
+                                                         final String... command) {
+            return runAsync(directory, null, command);
+        }
+
+        @Override
+        public CompletableFuture<CommandResult> runAsync(final File directory,
+                                                         final List<String> outputLines,
+                                                         final String... command) {
+            threads.add(Thread.currentThread().getName());
+
+            return threads.size() == 1
+                    ? new CompletableFuture<>()
+                    : CompletableFuture.completedFuture(DefaultCommandResult
+                    .newDefaultCommandResult(0, List.of()));
+        }
+    }
+}
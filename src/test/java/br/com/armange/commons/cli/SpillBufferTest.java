@@ -0,0 +1,114 @@
+package br.com.armange.commons.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillBufferTest {
+
+    public static final int LINES = 1000;
+
+    @Test
+    void shouldKeepSmallOutputInMemory() throws IOException {
+        final SpillBuffer spillBuffer = new SpillBuffer(1024);
+
+        write(spillBuffer, "first\r\nsecond\nlast");
+        spillBuffer.finish();
+
+        assertFalse(spillBuffer.getFile().isPresent());
+        assertEquals(3, spillBuffer.getLineCount());
+        assertEquals("second", spillBuffer.line(1));
+        assertEquals("last", spillBuffer.line(2));
+        assertEquals(List.of("first", "second", "last"),
+                spillBuffer.lines().collect(Collectors.toList()));
+        assertEquals("first\r\nsecond\nlast", spillBuffer.text());
+    }
+
+    @Test
+    void shouldSpillAndIndexLinesForRandomAccess() throws IOException {
+        final SpillBuffer spillBuffer = new SpillBuffer(100);
+        final String text = IntStream.range(0, LINES)
+                .mapToObj(i -> "line " + i + " \u00e9\n")
+                .collect(Collectors.joining());
+
+        write(spillBuffer, text);
+        spillBuffer.finish();
+
+        final Path file = spillBuffer.getFile().orElseThrow();
+
+        assertFalse(Files.exists(file));
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, spillBuffer.getSize());
+        assertEquals(LINES, spillBuffer.getLineCount());
+        assertEquals("line 0 \u00e9", spillBuffer.line(0));
+        assertEquals("line 31 \u00e9", spillBuffer.line(31));
+        assertEquals("line 32 \u00e9", spillBuffer.line(32));
+        assertEquals("line 999 \u00e9", spillBuffer.line(LINES - 1));
+        assertEquals(LINES, spillBuffer.lines().count());
+        assertEquals(text, new String(spillBuffer.newInputStream().readAllBytes(),
+                StandardCharsets.UTF_8));
+        assertThrows(IndexOutOfBoundsException.class, () -> spillBuffer.line(LINES));
+
+        spillBuffer.close();
+
+        assertThrows(IllegalStateException.class, spillBuffer::lines);
+    }
+
+    @Test
+    void shouldRejectReadsBeforeFinishing() throws IOException {
+        final SpillBuffer spillBuffer = new SpillBuffer(0);
+
+        write(spillBuffer, "a\n");
+
+        assertThrows(IllegalStateException.class, spillBuffer::text);
+
+        spillBuffer.close();
+    }
+
+    @Test
+    void shouldRejectWritesAfterFinishing() throws IOException {
+        final SpillBuffer spillBuffer = new SpillBuffer(4);
+
+        write(spillBuffer, "spilled\n");
+        spillBuffer.finish();
+
+        assertThrows(ClosedChannelException.class, () -> write(spillBuffer, "late\n"));
+        assertEquals(1, spillBuffer.getLineCount());
+        assertEquals("spilled\n", spillBuffer.text());
+
+        spillBuffer.close();
+
+        assertThrows(ClosedChannelException.class, () -> write(spillBuffer, "late\n"));
+    }
+
+    @Test
+    void shouldTruncateTextBeyondLimit() throws IOException {
+        final SpillBuffer spillBuffer = new SpillBuffer(4);
+
+        write(spillBuffer, "first\nsecond\n");
+        spillBuffer.finish();
+
+        assertEquals(String.format("first%n[8 more bytes truncated, read them with "
+                + "getResultReader() or stream()]%n"), spillBuffer.text(5));
+        assertEquals("first\nsecond\n", spillBuffer.text());
+
+        spillBuffer.close();
+    }
+
+    private static void write(final SpillBuffer spillBuffer, final String text) throws IOException {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 0; i < bytes.length; i += 7) {
+            spillBuffer.write(ByteBuffer.wrap(bytes, i, Math.min(7, bytes.length - i)));
+        }
+    }
+}
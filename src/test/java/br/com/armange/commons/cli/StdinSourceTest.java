@@ -0,0 +1,87 @@
+package br.com.armange.commons.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StdinSourceTest {
+
+    public static final List<String> LINES = List.of("Green", "Day");
+    public static final String TEXT = "Green\nDay\n";
+
+    @Test
+    void shouldWriteNothingForNone() {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertDoesNotThrow(() -> StdinSource.none()
+                .writeTo(outputStream, FlushPolicy.BUFFERED));
+        assertEquals(0, outputStream.size());
+    }
+
+    @Test
+    void shouldFeedTheSameLinesOnEveryUse() throws IOException {
+        final StdinSource stdinSource = StdinSource.lines(LINES);
+
+        assertEquals(TEXT, write(stdinSource, FlushPolicy.BUFFERED).toString());
+        assertEquals(TEXT, write(stdinSource, FlushPolicy.BUFFERED).toString());
+    }
+
+    @Test
+    void shouldCloseStreamAndRejectSecondUse() throws IOException {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final StdinSource stdinSource = StdinSource.lines(LINES.stream()
+                .onClose(() -> closed.set(true)));
+
+        assertEquals(TEXT, write(stdinSource, FlushPolicy.BUFFERED).toString());
+        assertTrue(closed.get());
+        assertThrows(IllegalStateException.class,
+                () -> write(stdinSource, FlushPolicy.BUFFERED));
+    }
+
+    @Test
+    void shouldFlushBytesOnlyAtLineEnds() throws IOException {
+        final StdinSource stdinSource = StdinSource.inputStream(
+                new ByteArrayInputStream("Green\nDa".getBytes()));
+        final FlushRecordingOutputStream outputStream = write(stdinSource,
+                FlushPolicy.EACH_LINE);
+
+        assertEquals(List.of("Green\n", "Green\nDa"), outputStream.flushed);
+    }
+
+    @Test
+    void shouldFeedEmptyStreamWithoutWriting() throws IOException {
+        assertEquals("", write(StdinSource.lines(Stream.empty()), FlushPolicy.EACH_LINE)
+                .toString());
+    }
+
+    private static FlushRecordingOutputStream write(final StdinSource stdinSource,
+                                                    final FlushPolicy flushPolicy)
+            throws IOException {
+        final FlushRecordingOutputStream outputStream = new FlushRecordingOutputStream();
+
+        stdinSource.writeTo(outputStream, flushPolicy);
+
+        return outputStream;
+    }
+
+    private static final class FlushRecordingOutputStream extends ByteArrayOutputStream {
+
+        private final List<String> flushed = new ArrayList<>();
+
+        @Override
+        public void flush() {
+            flushed.add(toString());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package br.com.armange.commons.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingCommandResultTest {
+
+    public static final String JAVA = "java";
+    public static final String JACOCO = "JaCoCo";
+    public static final String FIXTURES = "fixtures";
+    public static final String PRINT_HELLO_WITH_DELAY = "PrintHelloWithDelay.java";
+    public static final int LARGE_OUTPUT_LINES = 50_000;
+
+    @Test
+    void shouldStreamLinesAndExposeResultCodeAfterExhaustion() {
+        final URL resource = Thread.currentThread().getContextClassLoader()
+                .getResource(FIXTURES);
+
+        assertNotNull(resource);
+
+        final File directory = new File(resource.getFile());
+
+        try (final StreamingCommandResult commandResult = new DefaultCommandRunner()
+                .runStreaming(directory, JAVA, "PrintLargeOutput.java",
+                        String.valueOf(LARGE_OUTPUT_LINES))) {
+            assertEquals(LARGE_OUTPUT_LINES, commandResult.stream().count());
+            assertEquals(0, commandResult.getResultCode());
+            assertThat(commandResult.getResultLines(), empty());
+        }
+    }
+
+    @Test
+    void shouldIterateStreamedLinesOneByOne() {
+        final URL resource = Thread.currentThread().getContextClassLoader()
+                .getResource(FIXTURES);
+
+        assertNotNull(resource);
+
+        final File directory = new File(resource.getFile());
+
+        try (final StreamingCommandResult commandResult = new DefaultCommandRunner()
+                .runStreaming(directory, JAVA, "PrintHello.java", JACOCO)) {
+            final Iterator<String> lines = commandResult.stream().iterator();
+
+            assertTrue(lines.hasNext());
+            assertEquals("Hello JaCoCo.", lines.next());
+            assertFalse(lines.hasNext());
+            assertEquals(0, commandResult.getResultCode());
+        }
+    }
+
+    @Test
+    void shouldDestroyProcessWhenClosedBeforeExhaustion() {
+        final URL resource = Thread.currentThread().getContextClassLoader()
+                .getResource(FIXTURES);
+
+        assertNotNull(resource);
+
+        final File directory = new File(resource.getFile());
+        final StreamingCommandResult commandResult = new DefaultCommandRunner()
+                .runStreaming(directory, JAVA, PRINT_HELLO_WITH_DELAY, JACOCO);
+
+        try (final Stream<String> lines = commandResult.stream()) {
+            assertNotNull(lines);
+        }
+
+        assertThrows(CancellationException.class, commandResult::getResultCode);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (ProcessHandle.current().children().anyMatch(ProcessHandle::isAlive)) {
+                Thread.sleep(50);
+            }
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.armange.commons.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WorkerFramingTest {
+
+    public static final String DELIMITER = "--";
+    public static final List<String> LINES = List.of("Line1", "Lin\u00e92");
+
+    @Test
+    void shouldRoundTripEveryFraming() throws IOException {
+        assertThat(roundTrip(WorkerFraming.LINE), contains("Line1 Lin\u00e92"));
+        assertThat(roundTrip(WorkerFraming.DELIMITED), contains("Line1", "Lin\u00e92"));
+        assertThat(roundTrip(WorkerFraming.LENGTH_PREFIXED), contains("Line1", "Lin\u00e92"));
+    }
+
+    @Test
+    void shouldWriteLengthPrefixInBytes() throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        WorkerFraming.LENGTH_PREFIXED.writeRequest(outputStream, LINES, DELIMITER);
+
+        assertEquals("12\nLine1\nLin\u00e92", outputStream.toString("UTF-8"));
+    }
+
+    @Test
+    void shouldReturnNullAtEndOfStream() throws IOException {
+        for (final WorkerFraming framing : WorkerFraming.values()) {
+            assertNull(framing.readResponse(new ByteArrayInputStream(new byte[0]), DELIMITER));
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidLengthHeader() {
+        for (final String header : List.of("Hello JaCoCo.\n", "-1\n")) {
+            assertThrows(IOException.class, () -> WorkerFraming.LENGTH_PREFIXED.readResponse(
+                    new ByteArrayInputStream(header.getBytes()), DELIMITER));
+        }
+    }
+
+    private static List<String> roundTrip(final WorkerFraming framing) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        framing.writeRequest(outputStream, LINES, DELIMITER);
+
+        return framing.readResponse(new ByteArrayInputStream(outputStream.toByteArray()),
+                DELIMITER);
+    }
+}
@@ -0,0 +1,165 @@
+package br.com.armange.commons.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkerPoolTest {
+
+    public static final String JAVA = "java";
+    public static final String FIXTURES = "fixtures";
+    public static final String ECHO_WORKER = "EchoWorker.java";
+    public static final String HANG = "hang";
+    public static final String DELIMITER = "--";
+    public static final Duration HEALTH_CHECK_IDLE_TIMEOUT = Duration.ofSeconds(2);
+    public static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void shouldReuseWorkerAcrossRequests() {
+        try (final WorkerPool workerPool = WorkerPool.builder()
+                .command(List.of(JAVA, ECHO_WORKER))
+                .directory(fixtures())
+                .maxWorkers(1)
+                .build()) {
+            final CommandResult first = workerPool.run("JaCoCo");
+            final CommandResult second = workerPool.run("Green Day");
+
+            assertEquals(0, first.getResultCode());
+            assertEquals("Hello JaCoCo.\n", first.getResultMessage());
+            assertEquals("Hello Green Day.\n", second.getResultMessage());
+            assertEquals(1, workerPool.getIdleCount());
+        }
+    }
+
+    @Test
+    void shouldExchangeDelimitedRequests() {
+        try (final WorkerPool workerPool = WorkerPool.builder()
+                .command(List.of(JAVA, ECHO_WORKER, "delimited", DELIMITER))
+                .directory(fixtures())
+                .framing(WorkerFraming.DELIMITED)
+                .delimiter(DELIMITER)
+                .build()) {
+            final CommandResult commandResult = workerPool.run("JaCoCo", "Green Day");
+
+            assertThat(commandResult.getResultLines(),
+                    contains("Hello JaCoCo.", "Hello Green Day."));
+        }
+    }
+
+    @Test
+    void shouldRecycleWorkerAfterMaxRequests() {
+        try (final WorkerPool workerPool = WorkerPool.builder()
+                .command(List.of(JAVA, ECHO_WORKER))
+                .directory(fixtures())
+                .maxRequestsPerWorker(1)
+                .build()) {
+            assertEquals("Hello JaCoCo.\n", workerPool.run("JaCoCo").getResultMessage());
+            assertEquals(0, workerPool.getIdleCount());
+        }
+    }
+
+    @Test
+    void shouldReportWorkerExitAndDiscardWorker() {
+        try (final WorkerPool workerPool = WorkerPool.builder()
+                .command(List.of(JAVA, ECHO_WORKER))
+                .directory(fixtures())
+                .build()) {
+            final CommandResult commandResult = workerPool.run("exit");
+
+            assertNotEquals(0, commandResult.getResultCode());
+            assertEquals(0, workerPool.getIdleCount());
+            assertEquals("Hello JaCoCo.\n", workerPool.run("JaCoCo").getResultMessage());
+        }
+    }
+
+    @Test
+    void shouldEvictIdleWorkers() throws InterruptedException {
+        try (final WorkerPool workerPool = WorkerPool.builder()
+                .command(List.of(JAVA, ECHO_WORKER))
+                .directory(fixtures())
+                .idleTimeout(Duration.ofMillis(200))
+                .build()) {
+            workerPool.run("JaCoCo");
+
+            assertEquals(1, workerPool.getIdleCount());
+
+            Thread.sleep(600);
+
+            assertEquals(0, workerPool.getIdleCount());
+        }
+    }
+
+    @Test
+    void shouldKeepTimingOutRequestsWhileAHealthCheckHangs() throws InterruptedException {
+        try (final WorkerPool workerPool = WorkerPool.builder()
+                .command(List.of(JAVA, ECHO_WORKER))
+                .directory(fixtures())
+                .maxWorkers(2)
+                .idleTimeout(HEALTH_CHECK_IDLE_TIMEOUT)
+                .requestTimeout(REQUEST_TIMEOUT)
+                .healthCheckRequest(List.of(HANG))
+                .build()) {
+            assertEquals("Hello JaCoCo.\n", workerPool.run("JaCoCo").getResultMessage());
+
+            Thread.sleep(HEALTH_CHECK_IDLE_TIMEOUT.toMillis() * 3 / 4);
+
+            final CommandResult commandResult = assertTimeoutPreemptively(
+                    REQUEST_TIMEOUT.multipliedBy(3), () -> workerPool.run(HANG));
+
+            assertNotEquals(0, commandResult.getResultCode());
+            assertEquals(0, workerPool.getIdleCount());
+        }
+    }
+
+    @Test
+    void shouldSubstituteRequestArguments() {
+        try (final WorkerPool workerPool = WorkerPool.builder()
+                .command(List.of(JAVA, ECHO_WORKER))
+                .directory(fixtures())
+                .build()) {
+            assertEquals("Hello JaCoCo.\n", workerPool.run(Map.of("name", "JaCoCo"), "${name}")
+                    .getResultMessage());
+            assertThrows(IllegalArgumentException.class,
+                    () -> workerPool.run(Map.of(), "${name}"));
+        }
+    }
+
+    @Test
+    void shouldRequireDelimiterForDelimitedFraming() {
+        assertThrows(IllegalArgumentException.class, () -> WorkerPool.builder()
+                .command(List.of(JAVA, ECHO_WORKER, "delimited", DELIMITER))
+                .framing(WorkerFraming.DELIMITED)
+                .build());
+    }
+
+    @Test
+    void shouldDiscardWorkerAfterInvalidLengthHeader() {
+        try (final WorkerPool workerPool = WorkerPool.builder()
+                .command(List.of(JAVA, ECHO_WORKER))
+                .directory(fixtures())
+                .framing(WorkerFraming.LENGTH_PREFIXED)
+                .build()) {
+            final CommandResult commandResult = workerPool.run("JaCoCo");
+
+            assertNotEquals(0, commandResult.getResultCode());
+            assertEquals(0, workerPool.getIdleCount());
+        }
+    }
+
+    private static File fixtures() {
+        final URL resource = Thread.currentThread().getContextClassLoader()
+                .getResource(FIXTURES);
+
+        assertNotNull(resource);
+
+        return new File(resource.getFile());
+    }
+}
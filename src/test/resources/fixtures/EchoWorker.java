@@ -0,0 +1,31 @@
+package fixtures;
+
+import java.util.Scanner;
+
+public class EchoWorker {
+
+    public static void main(String[] args) throws InterruptedException {
+        final Scanner scanner = new Scanner(System.in);
+        final String delimiter = args.length > 1 && args[0].equals("delimited") ? args[1] : null;
+
+        while (scanner.hasNextLine()) {
+            final String name = scanner.nextLine();
+
+            if (name.equals(delimiter)) {
+                System.out.println(delimiter);
+            } else if (name.equals("exit")) {
+                System.exit(3);
+            } else if (name.equals("hang")) {
+                hang();
+            } else {
+                System.out.println(String.format("Hello %s.", name));
+            }
+
+            System.out.flush();
+        }
+    }
+
+    private static void hang() throws InterruptedException {
+        Thread.sleep(Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,13 @@
+package fixtures;
+
+public class PrintLargeOutput {
+
+    public static void main(String[] args) {
+        final int lines = Integer.parseInt(args[0]);
+        final String line = "x".repeat(100);
+
+        for (int i = 0; i < lines; i++) {
+            System.out.println(line);
+        }
+    }
+}